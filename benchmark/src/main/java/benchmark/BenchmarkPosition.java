@@ -0,0 +1,47 @@
+package benchmark;
+
+import chess.*;
+
+/**
+ * The positions every benchmark runs against: an opening and a middlegame
+ * reached by playing real moves from the start, so castling and en passant
+ * state is genuine, and a rook endgame loaded from FEN.
+ */
+public enum BenchmarkPosition {
+    OPENING("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6"),
+    MIDDLEGAME("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7", "f1e1", "b7b5",
+            "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6a5", "b3c2", "c7c5", "d2d4", "d8c7", "b1d2"),
+    ENDGAME("8/8/4k3/3p4/3P4/3K4/6R1/r7 w - - 0 1");
+
+    private final String[] moves;
+    private final String fen;
+
+    BenchmarkPosition(String... moves) {
+        this.moves = moves;
+        this.fen = null;
+    }
+
+    BenchmarkPosition(String fen) {
+        this.moves = new String[0];
+        this.fen = fen;
+    }
+
+    /**
+     * @return a fresh game in this position
+     */
+    public ChessGame create() {
+        ChessGame game = fen != null ? ChessGame.fromFen(fen) : new ChessGame();
+        try {
+            for (String move : moves) {
+                game.makeMove(new ChessMove(square(move, 0), square(move, 2), null));
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("Benchmark line for " + this + " is not legal", e);
+        }
+        return game;
+    }
+
+    private static ChessPosition square(String move, int offset) {
+        return ChessPosition.of(move.charAt(offset + 1) - '0', move.charAt(offset) - 'a' + 1);
+    }
+}
@@ -0,0 +1,116 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the ChessGame queries the server runs for every move.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessGameBenchmark {
+    @Param({"OPENING", "MIDDLEGAME", "ENDGAME"})
+    public BenchmarkPosition position;
+
+    private ChessGame game;
+    private List<ChessPosition> pieces;
+    private ChessMove move;
+
+    @Setup
+    public void setUp() {
+        game = position.create();
+        pieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    pieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        move = game.generateLegalMoves(game.getTeamTurn()).iterator().next();
+    }
+
+    /**
+     * validMoves for every piece of the side to move, the way a client highlights them.
+     * Legal moves are cached per position, so each invocation starts from a fresh
+     * copy to measure generating them; compare against {@link #copyGame()}.
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        ChessGame copy = new ChessGame(game);
+        for (ChessPosition piece : pieces) {
+            blackhole.consume(copy.validMoves(piece));
+        }
+    }
+
+    /**
+     * pieceMoves for every piece of the side to move, each call building a collection
+     */
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        ChessBoard board = game.getBoard();
+        for (ChessPosition piece : pieces) {
+            blackhole.consume(board.getPiece(piece).pieceMoves(board, piece));
+        }
+    }
+
+    /**
+     * The same moves as {@link #pieceMoves(Blackhole)}, handed straight to a sink
+     */
+    @Benchmark
+    public void pieceMovesToSink(Blackhole blackhole) {
+        ChessBoard board = game.getBoard();
+        for (ChessPosition piece : pieces) {
+            board.getPiece(piece).pieceMoves(board, piece, blackhole::consume);
+        }
+    }
+
+    /**
+     * Plays one legal move on a fresh copy; compare against {@link #copyGame()}
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        ChessGame copy = new ChessGame(game);
+        copy.makeMove(move);
+        return copy;
+    }
+
+    /**
+     * The copy makeMove and the cached queries start from, to subtract out
+     */
+    @Benchmark
+    public ChessGame copyGame() {
+        return new ChessGame(game);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    /**
+     * Checkmate on a fresh copy, since the answer is cached until the position changes
+     */
+    @Benchmark
+    public boolean isInCheckmate() {
+        return new ChessGame(game).isInCheckmate(game.getTeamTurn());
+    }
+
+    /**
+     * Stalemate on a fresh copy, since the answer is cached until the position changes
+     */
+    @Benchmark
+    public boolean isInStalemate() {
+        return new ChessGame(game).isInStalemate(game.getTeamTurn());
+    }
+}
@@ -74,7 +74,7 @@ public class BoardPrint {
                     out.append(SET_BG_COLOR_DARK_GREY).append(SET_TEXT_COLOR_MAGENTA);
                     out.append(rank == 9 || rank == 0 ? FILES[file] : " " + rank + "\u2003");
                 } else {
-                    ChessPosition pos = new ChessPosition(rank, 9 - file);
+                    ChessPosition pos = ChessPosition.of(rank, 9 - file);
 
                     if (pos.equals(start) || pos.equals(end)) {
                         out.append(SET_BG_COLOR_MAGENTA);
@@ -64,7 +64,7 @@ public class PlayClient implements Client {
         if (position.length() < 2 || !position.matches("[a-h][1-8]")) {
             throw new RespExp(400, "Ensure that your positions are in File Rank format i.e. h5");
         }
-        return new ChessPosition(position.charAt(1) - '0', position.charAt(0) - 'a' + 1);
+        return ChessPosition.of(position.charAt(1) - '0', position.charAt(0) - 'a' + 1);
     }
 
     private String highlightValidMoves(String... params) throws RespExp {
@@ -121,6 +121,10 @@ public class WebSocketHandler {
 
         ChessMove move = command.retrieveMove();
         board.makeMove(move);
+        ChessGame.GameStatus gameStatus = board.status();
+        if (gameStatus == ChessGame.GameStatus.DRAW) {
+            board.setGameOver(true); // End drawn games so they can't run on forever
+        }
 
         GameData updated = new GameData(
                 gameData.gameID(),
@@ -141,24 +145,30 @@ public class WebSocketHandler {
                         board.getTeamTurn())
         ));
 
-        if (board.isInCheckmate(ChessGame.TeamColor.WHITE)) {
-            connectionManager.broadcast(gameData.gameID(), null, new NotificationMessage(
-                    String.format("%s (White) is in Checkmate. %s (Black) wins!",
-                            gameData.whiteUsername(), gameData.blackUsername())));
-        } else if (board.isInCheckmate(ChessGame.TeamColor.BLACK)) {
-            connectionManager.broadcast(gameData.gameID(), null, new NotificationMessage(
-                    String.format("%s (Black) is in Checkmate. %s (White) wins!",
-                            gameData.blackUsername(), gameData.whiteUsername())));
-        } else if (board.isInCheck(ChessGame.TeamColor.WHITE)) {
-            connectionManager.broadcast(gameData.gameID(), null, new NotificationMessage(
-                    String.format("%s (White) is in check.", gameData.whiteUsername())));
-        } else if (board.isInCheck(ChessGame.TeamColor.BLACK)) {
-            connectionManager.broadcast(gameData.gameID(), null, new NotificationMessage(
-                    String.format("%s (Black) is in check.", gameData.blackUsername())));
-        } else if (board.isInStalemate(board.getTeamTurn())) {
-            connectionManager.broadcast(gameData.gameID(), null, new NotificationMessage(
-                    "Stalemate! No legal moves and no check. Game ends in a draw."));
+        // Only the side to move can be in check after a legal move
+        boolean whiteToMove = board.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        String mover = whiteToMove ? gameData.whiteUsername() + " (White)" : gameData.blackUsername() + " (Black)";
+        String opponent = whiteToMove ? gameData.blackUsername() + " (Black)" : gameData.whiteUsername() + " (White)";
+        String status = switch (gameStatus) {
+            case CHECKMATE -> String.format("%s is in Checkmate. %s wins!", mover, opponent);
+            case CHECK -> String.format("%s is in check.", mover);
+            case STALEMATE -> "Stalemate! No legal moves and no check. Game ends in a draw.";
+            case DRAW -> drawReason(board) + " Game ends in a draw.";
+            case NORMAL -> null;
+        };
+        if (status != null) {
+            connectionManager.broadcast(gameData.gameID(), null, new NotificationMessage(status));
+        }
+    }
+
+    private static String drawReason(ChessGame game) {
+        if (game.isThreefoldRepetition()) {
+            return "The same position has occurred three times.";
+        }
+        if (game.isFiftyMoveDraw()) {
+            return "Fifty moves have passed without a capture or pawn move.";
         }
+        return "Neither side has enough material to checkmate.";
     }
 
     private void handleResign(Session session, String message) throws RespExp, IOException {
@@ -1,33 +1,95 @@
 package chess;
 
 
+import chess.pieces.Attacks;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as bitboards: one {@code long} per team and piece type,
+ * where bit {@code (row - 1) * 8 + (column - 1)} is set when that square holds
+ * the piece, plus an occupancy mask for each team.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(JsonFormat.class)
 public class ChessBoard {
-    private ChessPiece[][] squares = new ChessPiece[8][8];
+    private static final int TYPES = ChessPiece.PieceType.values().length;
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    private static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    private static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    // Undo token layout: captured piece index + 1 in the low four bits, then the move kind
+    private static final int CAPTURE_MASK = 0xF;
+    private static final int CASTLING = 1 << 4;
+    private static final int EN_PASSANT = 1 << 5;
+    private static final int PROMOTION = 1 << 6;
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+    // FEN letter for each piece index
+    private static final String SYMBOLS = "KQBNRPkqbnrp";
+
+    private long[] pieces = new long[TYPES * 2];
+    private long[] teams = new long[2];
+    // Zobrist key of the piece placement, updated with every piece added or removed.
+    // Not serialized, so it is rebuilt from the bitboards on first use after loading.
+    private transient long key;
+    private transient boolean keyed;
+
     public ChessBoard() {
 
     }
 
+    /**
+     * Creates a copy of another board
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        pieces = other.pieces.clone();
+        teams = other.teams.clone();
+        key = other.key;
+        keyed = other.keyed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return getZobristKey() == that.getZobristKey() && Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(getZobristKey());
+    }
+
+    /**
+     * Gets the Zobrist key of the piece placement. Equal boards always have equal
+     * keys, and the key is kept up to date as pieces are added and moved.
+     *
+     * @return 64-bit hash of where every piece stands
+     */
+    public long getZobristKey() {
+        if (!keyed) {
+            key = 0;
+            for (int index = 0; index < pieces.length; index++) {
+                for (long remaining = pieces[index]; remaining != 0; remaining &= remaining - 1) {
+                    key ^= Zobrist.piece(index, Long.numberOfTrailingZeros(remaining));
+                }
+            }
+            keyed = true;
+        }
+        return key;
     }
 
     /**
@@ -37,7 +99,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow()-1][position.getColumn()-1] = piece;
+        int square = squareIndex(position);
+        clearSquare(square);
+        if (piece != null) {
+            putPiece(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -48,7 +114,116 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow()-1][position.getColumn()-1];
+        return getPiece(squareIndex(position));
+    }
+
+    /**
+     * Gets a chess piece by square index
+     *
+     * @param square the square index (0-63)
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        int index = pieceIndexAt(square);
+        return index < 0 ? null : ChessPiece.of(COLORS[index / TYPES], PIECE_TYPES[index % TYPES]);
+    }
+
+    /**
+     * @return bitboard of every piece of the given team and type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every piece belonging to the given team
+     */
+    public long getTeamPieces(ChessGame.TeamColor color) {
+        return teams[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupied() {
+        return teams[0] | teams[1];
+    }
+
+    /**
+     * Gets the square of a team's king. The king bitboard is updated by every
+     * add, move and removal, so this is a single bit scan and is always in step
+     * with the board however it was built.
+     *
+     * @param color the team whose king to find
+     * @return the king's square index (0-63), or -1 if the team has no king
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        long king = pieces[pieceIndex(color, ChessPiece.PieceType.KING)];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Gets the position of a team's king
+     *
+     * @param color the team whose king to find
+     * @return the king's position, or null if the team has no king
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = getKingSquare(color);
+        return square < 0 ? null : toPosition(square);
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square. Rather than
+     * generating the attacking team's moves, this looks outward from the square
+     * with each piece's attack pattern and checks whether it lands on a piece
+     * of that type, stopping at the first hit.
+     *
+     * @param square  the square index (0-63) to test
+     * @param byColor the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        int offset = byColor.ordinal() * TYPES;
+        if ((Attacks.pawn(byColor.opponent(), square) & pieces[offset + PAWN]) != 0
+                || (Attacks.knight(square) & pieces[offset + KNIGHT]) != 0
+                || (Attacks.king(square) & pieces[offset + KING]) != 0) {
+            return true;
+        }
+        long occupied = getOccupied();
+        long queens = pieces[offset + QUEEN];
+        return (Attacks.bishop(square, occupied) & (pieces[offset + BISHOP] | queens)) != 0
+                || (Attacks.rook(square, occupied) & (pieces[offset + ROOK] | queens)) != 0;
+    }
+
+    /**
+     * Finds every piece of the given team that attacks a square, treating the
+     * given occupancy as the blockers for sliding pieces
+     *
+     * @param square   the square index (0-63) to test
+     * @param byColor  the attacking team
+     * @param occupied occupied squares to use for blocking
+     * @return bitboard of the attacking pieces
+     */
+    public long getAttackers(int square, ChessGame.TeamColor byColor, long occupied) {
+        int offset = byColor.ordinal() * TYPES;
+        long queens = pieces[offset + QUEEN];
+        return (Attacks.pawn(byColor.opponent(), square) & pieces[offset + PAWN])
+                | (Attacks.knight(square) & pieces[offset + KNIGHT])
+                | (Attacks.king(square) & pieces[offset + KING])
+                | (Attacks.bishop(square, occupied) & (pieces[offset + BISHOP] | queens))
+                | (Attacks.rook(square, occupied) & (pieces[offset + ROOK] | queens));
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a position
+     *
+     * @param position the position to test
+     * @param byColor  the attacking team
+     * @return True if the position is attacked
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(squareIndex(position), byColor);
     }
 
     /**
@@ -56,49 +231,286 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                squares[i][j] = null;
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(teams, 0L);
+        key = 0;
+        keyed = true;
+
+        for (int col = 0; col < 8; col++) {
+            putPiece(6 * 8 + col, pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            putPiece(8 + col, pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        }
+        // Back rank from the a-file to the h-file, mirrored for both teams
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING,
+                ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for (int col = 0; col < 8; col++) {
+            putPiece(7 * 8 + col, pieceIndex(ChessGame.TeamColor.BLACK, backRank[col]));
+            putPiece(col, pieceIndex(ChessGame.TeamColor.WHITE, backRank[col]));
+        }
+    }
+
+    /**
+     * Builds a board from the piece placement field of a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR}: rows from 8 down to
+     * 1 separated by slashes, uppercase letters for white, and digits counting
+     * empty squares.
+     *
+     * @param placement the piece placement field
+     * @return the new board
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    public static ChessBoard fromFen(String placement) {
+        ChessBoard board = new ChessBoard();
+        if (board.readFen(placement, 0) != placement.length()) {
+            throw new IllegalArgumentException("Unexpected text after the piece placement: " + placement);
+        }
+        return board;
+    }
+
+    /**
+     * @return the piece placement of this board as a FEN field
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(72);
+        appendFen(fen);
+        return fen.toString();
+    }
+
+    /**
+     * Replaces this board's pieces with a FEN piece placement, reading from
+     * {@code start} up to the next space or the end of the text
+     *
+     * @return the index just past the placement field
+     * @throws IllegalArgumentException if the placement is malformed
+     */
+    int readFen(String fen, int start) {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(teams, 0L);
+        key = 0;
+        keyed = true;
+
+        int row = 7;
+        int col = 0;
+        int i = start;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw new IllegalArgumentException("Row " + (row + 1) + " doesn't have 8 squares: " + fen);
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 8) {
+                    throw new IllegalArgumentException("Row " + (row + 1) + " has more than 8 squares: " + fen);
+                }
+            } else {
+                int index = SYMBOLS.indexOf(c);
+                if (index < 0) {
+                    throw new IllegalArgumentException("Unknown piece '" + c + "' in " + fen);
+                }
+                if (col == 8) {
+                    throw new IllegalArgumentException("Row " + (row + 1) + " has more than 8 squares: " + fen);
+                }
+                putPiece(row * 8 + col++, index);
             }
         }
+        if (row != 0 || col != 8) {
+            throw new IllegalArgumentException("Piece placement doesn't cover all 64 squares: " + fen);
+        }
+        return i;
+    }
 
-        for (int col = 0; col < 8; col++) {
-            squares[6][col] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-            squares[1][col] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+    void appendFen(StringBuilder fen) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int index = pieceIndexAt(row * 8 + col);
+                if (index < 0) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(SYMBOLS.charAt(index));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
         }
-        // Set up rooks, knights, and bishops using arrays for their column positions
-        int[] rookCols = {0, 7};
-        int[] knightCols = {1, 6};
-        int[] bishopCols = {2, 5};
+    }
+
+    /**
+     * Plays a move on this board in place. A king moving two columns castles and
+     * brings the rook across, a pawn moving diagonally onto an empty square
+     * captures en passant, and a pawn reaching the last row promotes (to a queen
+     * if the move names no promotion piece). The move is not checked for legality.
+     *
+     * @param move the move to play
+     * @return a token recording the captured piece and the kind of move, to hand
+     * back to {@link #unmakeMove(ChessMove, int)}
+     */
+    public int makeMove(ChessMove move) {
+        return makeMove(Move.fromChessMove(move));
+    }
 
-        for (int col : rookCols) {
-            squares[7][col] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-            squares[0][col] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+    /**
+     * Plays a packed {@link Move} on this board in place, the same way as
+     * {@link #makeMove(ChessMove)}
+     *
+     * @param move the packed move to play
+     * @return a token to hand back to {@link #unmakeMove(int, int)}
+     */
+    public int makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moving = pieceIndexAt(from);
+        int captured = pieceIndexAt(to);
+        int offset = moving - moving % TYPES;
+        int undo = captured + 1;
+
+        removePiece(from, moving);
+        if (captured >= 0) {
+            removePiece(to, captured);
         }
+        if (moving % TYPES == KING && Math.abs(to % 8 - from % 8) == 2) {
+            moveRook(to > from ? from + 3 : from - 4, to > from ? from + 1 : from - 1);
+            undo |= CASTLING;
+        } else if (moving % TYPES == PAWN && to % 8 != from % 8 && captured < 0) {
+            int passed = from - from % 8 + to % 8;
+            captured = pieceIndexAt(passed);
+            if (captured >= 0) {
+                removePiece(passed, captured);
+            }
+            undo = (captured + 1) | EN_PASSANT;
+        }
+        if (moving % TYPES == PAWN && (to / 8 == 0 || to / 8 == 7)) {
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            moving = offset + (promotion != null ? promotion.ordinal() : QUEEN);
+            undo |= PROMOTION;
+        }
+        putPiece(to, moving);
+        return undo;
+    }
 
-        for (int col : knightCols) {
-            squares[7][col] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-            squares[0][col] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+    /**
+     * Takes back a move made with {@link #makeMove(ChessMove)}, restoring the
+     * board exactly as it was
+     *
+     * @param move the move that was played
+     * @param undo the token makeMove returned for it
+     */
+    public void unmakeMove(ChessMove move, int undo) {
+        unmakeMove(Move.fromChessMove(move), undo);
+    }
+
+    /**
+     * Takes back a packed move made with {@link #makeMove(int)}
+     *
+     * @param move the packed move that was played
+     * @param undo the token makeMove returned for it
+     */
+    public void unmakeMove(int move, int undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int moved = pieceIndexAt(to);
+        int captured = (undo & CAPTURE_MASK) - 1;
+
+        removePiece(to, moved);
+        putPiece(from, (undo & PROMOTION) != 0 ? moved - moved % TYPES + PAWN : moved);
+        if ((undo & CASTLING) != 0) {
+            moveRook(to > from ? from + 1 : from - 1, to > from ? from + 3 : from - 4);
         }
+        if (captured >= 0) {
+            putPiece((undo & EN_PASSANT) != 0 ? from - from % 8 + to % 8 : to, captured);
+        }
+    }
+
+    /**
+     * @return the square index (0-63) of a position, a1 = 0 and h8 = 63
+     */
+    public static int squareIndex(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + position.getColumn() - 1;
+    }
 
-        for (int col : bishopCols) {
-            squares[7][col] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-            squares[0][col] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+    /**
+     * @return the position of a square index (0-63)
+     */
+    public static ChessPosition toPosition(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * TYPES + type.ordinal();
+    }
+
+    private int pieceIndexAt(int square) {
+        long bit = 1L << square;
+        int offset;
+        if ((teams[0] & bit) != 0) {
+            offset = 0;
+        } else if ((teams[1] & bit) != 0) {
+            offset = TYPES;
+        } else {
+            return -1;
         }
+        for (int type = 0; type < TYPES; type++) {
+            if ((pieces[offset + type] & bit) != 0) {
+                return offset + type;
+            }
+        }
+        return -1;
+    }
+
+    private void putPiece(int square, int index) {
+        long bit = 1L << square;
+        pieces[index] |= bit;
+        teams[index / TYPES] |= bit;
+        key ^= Zobrist.piece(index, square);
+    }
+
+    private void removePiece(int square, int index) {
+        long bit = 1L << square;
+        pieces[index] &= ~bit;
+        teams[index / TYPES] &= ~bit;
+        key ^= Zobrist.piece(index, square);
+    }
 
-        // Set up queens
-        squares[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        squares[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+    private void clearSquare(int square) {
+        int index = pieceIndexAt(square);
+        if (index >= 0) {
+            removePiece(square, index);
+        }
+    }
 
-        // Set up kings
-        squares[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        squares[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+    private void moveRook(int from, int to) {
+        int rook = pieceIndexAt(from);
+        if (rook >= 0) {
+            removePiece(from, rook);
+            putPiece(to, rook);
+        }
     }
 
     @Override
     public String toString() {
-        return "ChessBoard{" +
-                "squares=" + Arrays.toString(squares) +
-                '}';
+        StringBuilder text = new StringBuilder("ChessBoard{\n");
+        for (int row = 7; row >= 0; row--) {
+            text.append('|');
+            for (int col = 0; col < 8; col++) {
+                int index = pieceIndexAt(row * 8 + col);
+                text.append(index < 0 ? ' ' : SYMBOLS.charAt(index)).append('|');
+            }
+            text.append('\n');
+        }
+        return text.append('}').toString();
     }
-}
\ No newline at end of file
+}
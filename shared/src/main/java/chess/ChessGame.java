@@ -1,6 +1,9 @@
 package chess;
 
 
+import chess.pieces.Attacks;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.*;
 
 /**
@@ -8,20 +11,215 @@ import java.util.*;
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
+ * <p>
+ * A game is not thread-safe. Even the query methods, such as validMoves and
+ * isInCheckmate, fill in cached legal moves, so a game shared between threads
+ * has to be guarded by the caller, for example by synchronizing on it.
  */
+@JsonAdapter(JsonFormat.class)
 public class ChessGame {
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 15;
+    private static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+
+    // The castling rights kept when a move starts or ends on each square; moving a
+    // king or rook, or capturing a rook, gives up the rights that piece was part of
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+    }
+
     private ChessBoard board;
     private TeamColor currentTeam;
-    private ChessMove lastMove;
+    // The last move played, packed, or Move.NONE. Gson writes it as a ChessMove
+    // through JsonFormat, so saved games keep the shape clients read.
+    private transient int lastMove = Move.NONE;
     private boolean gameOver = false;
+    private int castlingRights = ALL_CASTLING;
+    // The square a pawn skipped over on the last move, if an enemy pawn can capture onto it, or -1
+    private int enPassantSquare = -1;
+    // Moves since the last capture or pawn move, and the move number that goes up after black moves
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    // Zobrist keys of every earlier position in the game, oldest first, and how
+    // many times the current position has already occurred among them
+    private long[] positionHistory;
+    private int historySize;
+    private int repetitions;
 
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         currentTeam = TeamColor.WHITE;
-        lastMove = null;
+        lastMove = Move.NONE;
+
+
+    }
 
+    /**
+     * Creates an independent copy of another game, so moves can be tried on
+     * the copy without touching the original
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        currentTeam = other.currentTeam;
+        lastMove = other.lastMove;
+        gameOver = other.gameOver;
+        castlingRights = other.castlingRights;
+        enPassantSquare = other.enPassantSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        if (other.positionHistory != null) {
+            positionHistory = Arrays.copyOf(other.positionHistory, Math.max(other.historySize, 16));
+        }
+        historySize = other.historySize;
+        repetitions = other.repetitions;
+    }
 
+    private ChessGame(ChessBoard board, TeamColor currentTeam) {
+        this.board = board;
+        this.currentTeam = currentTeam;
+    }
+
+    /**
+     * Sets up a game from a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1}. The
+     * move counters may be left off, in which case they start at 0 and 1.
+     *
+     * @param fen the position in Forsyth-Edwards Notation
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int i = expect(fen, board.readFen(fen, 0), ' ');
+        TeamColor team = switch (i < fen.length() ? fen.charAt(i) : ' ') {
+            case 'w' -> TeamColor.WHITE;
+            case 'b' -> TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Side to move must be w or b: " + fen);
+        };
+        ChessGame game = new ChessGame(board, team);
+
+        i = expect(fen, i + 1, ' ');
+        int rights = 0;
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+                rights |= switch (fen.charAt(i)) {
+                    case 'K' -> WHITE_KINGSIDE;
+                    case 'Q' -> WHITE_QUEENSIDE;
+                    case 'k' -> BLACK_KINGSIDE;
+                    case 'q' -> BLACK_QUEENSIDE;
+                    default -> throw new IllegalArgumentException("Unknown castling right '" + fen.charAt(i) + "' in " + fen);
+                };
+            }
+        }
+        game.castlingRights = rights;
+
+        i = expect(fen, i, ' ');
+        if (i < fen.length() && fen.charAt(i) == '-') {
+            i++;
+        } else {
+            if (i + 1 >= fen.length() || fen.charAt(i) < 'a' || fen.charAt(i) > 'h'
+                    || fen.charAt(i + 1) != (team == TeamColor.WHITE ? '6' : '3')) {
+                throw new IllegalArgumentException("Bad en passant square in " + fen);
+            }
+            int skipped = (fen.charAt(i + 1) - '1') * 8 + fen.charAt(i) - 'a';
+            // Only kept when an enemy pawn really has just pushed past the square, and
+            // a pawn can take it, the same as after a double push in play
+            int pushed = team == TeamColor.WHITE ? skipped - 8 : skipped + 8;
+            int origin = team == TeamColor.WHITE ? skipped + 8 : skipped - 8;
+            long empty = ~board.getOccupied();
+            long capturers = board.getPieces(team, ChessPiece.PieceType.PAWN);
+            if ((empty & (1L << skipped)) != 0 && (empty & (1L << origin)) != 0
+                    && (board.getPieces(team.opponent(), ChessPiece.PieceType.PAWN) & (1L << pushed)) != 0
+                    && (Attacks.pawn(team.opponent(), skipped) & capturers) != 0) {
+                game.enPassantSquare = skipped;
+            }
+            i += 2;
+        }
+
+        if (i < fen.length()) {
+            i = expect(fen, i, ' ');
+            int end = fen.indexOf(' ', i);
+            if (end < 0) {
+                throw new IllegalArgumentException("Missing the fullmove number in " + fen);
+            }
+            game.halfmoveClock = parseCounter(fen, i, end);
+            game.fullmoveNumber = parseCounter(fen, end + 1, fen.length());
+            if (game.fullmoveNumber < 1) {
+                throw new IllegalArgumentException("Fullmove number must be at least 1: " + fen);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * @return this game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendFen(fen);
+        fen.append(currentTeam == TeamColor.WHITE ? " w " : " b ");
+        int rights = castlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            if ((rights & WHITE_KINGSIDE) != 0) {
+                fen.append('K');
+            }
+            if ((rights & WHITE_QUEENSIDE) != 0) {
+                fen.append('Q');
+            }
+            if ((rights & BLACK_KINGSIDE) != 0) {
+                fen.append('k');
+            }
+            if ((rights & BLACK_QUEENSIDE) != 0) {
+                fen.append('q');
+            }
+        }
+        fen.append(' ');
+        if (enPassantSquare < 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassantSquare % 8)).append((char) ('1' + enPassantSquare / 8));
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    private static int expect(String fen, int i, char c) {
+        if (i >= fen.length() || fen.charAt(i) != c) {
+            throw new IllegalArgumentException("Expected '" + c + "' at index " + i + " of " + fen);
+        }
+        return i + 1;
+    }
+
+    private static int parseCounter(String fen, int start, int end) {
+        if (start >= end || end - start > 9) {
+            throw new IllegalArgumentException("Bad move counter in " + fen);
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Bad move counter in " + fen);
+            }
+            value = value * 10 + c - '0';
+        }
+        return value;
     }
 
     @Override
@@ -29,8 +227,9 @@ public class ChessGame {
         return "ChessGame{" +
                 "board=" + board +
                 ", currentTeam=" + currentTeam +
-                ", lastMove=" + lastMove +
-                ", movedPieces=" + movedPieces +
+                ", lastMove=" + getLastMove() +
+                ", castlingRights=" + castlingRights +
+                ", enPassantSquare=" + enPassantSquare +
                 '}';
     }
 
@@ -48,7 +247,12 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
+        // The en passant square belongs to the side that was to move, so handing the turn over forfeits it
+        if (team != currentTeam) {
+            enPassantSquare = -1;
+        }
         this.currentTeam = team;
+        invalidateCache();
     }
 
     /**
@@ -56,7 +260,25 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * Enum identifying the state of a game for the side to move
+     */
+    public enum GameStatus {
+        NORMAL,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW
     }
 
     /**
@@ -72,69 +294,29 @@ public class ChessGame {
         if (piece == null) {
             return null;
         }
-
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        List<ChessMove> legalMoves = new ArrayList<>();
-
-        for (ChessMove move : possibleMoves) {
-            if (!wouldLeaveKingInCheck(piece.getTeamColor(), move)) {
-                legalMoves.add(move);
-            }
-        }
-        if (piece.getPieceType()== ChessPiece.PieceType.KING && !isInCheck(piece.getTeamColor())&& !movedPieces.contains(startPosition)) {
-            //check to see if the king can move left or right,
-            int[] rookCols = {1, 8};
-            for(int rookCol : rookCols){
-                int row = startPosition.getRow();
-                int col = startPosition.getColumn();
-                ChessPosition rookPosition = new ChessPosition(row,rookCol);
-                ChessPiece rook = board.getPiece(rookPosition);
-                int kingStartRow = piece.getTeamColor() == TeamColor.WHITE ? 1 : 8;
-
-                if(rook != null && rook.getPieceType() == ChessPiece.PieceType.ROOK  && piece.getTeamColor() == rook.getTeamColor() &&
-                        !movedPieces.contains(rookPosition) &&
-                        isValidCastlingPath(row, col, rookCol) && kingStartRow == row && col == 5) {
-                    int kingCol = rookCol == 8 ? 7 : 3;
-                    ChessPosition end = new ChessPosition(row, kingCol);
-                    ChessMove move = new ChessMove(startPosition, end, null);
-                    legalMoves.add(move);
-                }
-            }
-        }
-
-        int direction = piece.getTeamColor() == TeamColor.WHITE ? 1 : -1;
-
-        int newRow = startPosition.getRow() + direction;
-
-        // Check diagonals for capturing opponent pieces
-        for (int i = -1; i <= 1; i += 2) {
-            int newColumn = startPosition.getColumn() + i;
-
-
-            // Validate the move and check if there's an opponent piece to capture
-            if (isValidPosition(newRow, newColumn)) {
-                ChessPosition nextPosition = new ChessPosition(newRow, newColumn);
-                ChessMove enPassant = new ChessMove(startPosition, nextPosition, null);
-                if (isEnPassantMove(piece, enPassant) && !wouldLeaveKingInCheck(currentTeam, enPassant)) {
-                    legalMoves.add(enPassant);
-                }
-            }
-        }
-               return legalMoves;
-
+        return legalMoves(piece.getTeamColor()).movesFrom(ChessBoard.squareIndex(startPosition));
     }
 
-    private boolean isValidPosition(int row, int col) {
-        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    /**
+     * Gets every legal move for one team in a single pass. Checks and pins are
+     * worked out once for the whole position rather than once per piece.
+     *
+     * @param teamColor the team to generate moves for
+     * @return every legal move the team could make
+     */
+    public Collection<ChessMove> generateLegalMoves(TeamColor teamColor) {
+        return legalMoves(teamColor).moves.toChessMoves();
     }
 
-    private boolean wouldLeaveKingInCheck(TeamColor team, ChessMove move) {
-        // Simulate the move on a temporary board
-        ChessBoard tempBoard = copyBoard();
-        tempBoard.addPiece(move.getEndPosition(), tempBoard.getPiece(move.getStartPosition()));
-        tempBoard.addPiece(move.getStartPosition(), null);
-
-        return isInCheck(team, tempBoard);
+    /**
+     * Adds every legal move for one team to a packed move buffer, without
+     * allocating. The buffer is not cleared first.
+     *
+     * @param teamColor the team to generate moves for
+     * @param moves     the buffer to add the moves to
+     */
+    public void generateLegalMoves(TeamColor teamColor, MoveList moves) {
+        MoveGenerator.generate(board, teamColor, castlingRights(), enPassantFor(teamColor), ~0L, moves);
     }
 
 
@@ -145,10 +327,7 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        ChessPosition startPosition = move.getStartPosition();
-        ChessPosition endPosition = move.getEndPosition();
-
-        ChessPiece piece = board.getPiece(startPosition);
+        ChessPiece piece = board.getPiece(move.getStartPosition());
         if (piece == null) {
             throw new InvalidMoveException("No piece at the start position.");
         }
@@ -157,114 +336,328 @@ public class ChessGame {
             throw new InvalidMoveException("Error: It is the " + correctTeam + " team's turn.");
         }
 
-        Collection<ChessMove> legalMoves = validMoves(startPosition);
-        if (legalMoves == null || !legalMoves.contains(move)) {
+        int packed = Move.fromChessMove(move);
+        if (legalMoves(currentTeam).moves.indexOf(packed) < 0) {
             throw new InvalidMoveException("Error: From " + move.getStartPosition().prettyOutput()
                     + " to " + move.getEndPosition().prettyOutput() + " is not a valid move.");
         }
 
-        ChessBoard tempBoard = copyBoard();
-        tempBoard.addPiece(endPosition, piece);
-        tempBoard.addPiece(startPosition, null);
+        playMove(packed);
+    }
+
+    // Everything undoMove needs to step back, one entry per move played. Only
+    // meaningful within a session, so not serialized.
+    private transient int[] playedMoves;
+    private transient long[] undoRecords;
+    private transient int[] previousLastMoves;
+    private transient int undoDepth;
+
+    // Legal moves for each team in the current position, kept until the
+    // position changes so repeated queries between moves don't regenerate them
+    private transient LegalMoves[] legalMoveCache;
+    private transient GameStatus cachedStatus;
+    private transient long statusKey;
+
+    /**
+     * Plays a packed move without checking that it is legal, for engines that
+     * walk the game tree with moves from {@link #generateLegalMoves(TeamColor, MoveList)}.
+     * Every move played this way (or through makeMove) can be taken back with
+     * {@link #undoMove()}.
+     *
+     * @param move the packed legal move to play
+     */
+    public void playMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean pawnOrCapture = ((board.getPieces(currentTeam, ChessPiece.PieceType.PAWN) & (1L << from))
+                | (board.getTeamPieces(currentTeam.opponent()) & (1L << to))) != 0;
+        pushHistory();
+        pushUndo(move, board.makeMove(move));
+        halfmoveClock = pawnOrCapture ? 0 : halfmoveClock + 1;
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        enPassantSquare = enPassantTarget(currentTeam, from, to);
+
+        lastMove = move;
+        passTurn();
+        repetitions = countRepetitions();
+    }
+
+    /**
+     * Passes the turn without moving a piece, for engines that prune a line
+     * when even a free move for the opponent can't save it. Taken back with
+     * {@link #undoMove()} like any other move. Positions before a null move
+     * are never counted as repetitions of positions after it.
+     */
+    public void playNullMove() {
+        pushHistory();
+        pushUndo(Move.NONE, 0);
+        halfmoveClock = 0;
+        enPassantSquare = -1;
+        passTurn();
+        repetitions = 0;
+    }
 
-        if (isInCheck(currentTeam, tempBoard)) {
-            throw new InvalidMoveException("Move puts player in check.");
+    private void pushHistory() {
+        if (positionHistory == null || historySize == positionHistory.length) {
+            // A loaded game's history is trimmed to its size, possibly to nothing
+            positionHistory = positionHistory == null ? new long[64]
+                    : Arrays.copyOf(positionHistory, Math.max(64, positionHistory.length * 2));
         }
-        if (isCastlingMove(piece, move)) {
-            performCastling(move);
-        } else if (isEnPassantMove(piece, move)) {
-            performEnPassant(move);
-        } else {
-            board.addPiece(endPosition, piece);
-            board.addPiece(startPosition, null);
-            if (piece.getPieceType() == ChessPiece.PieceType.PAWN && (endPosition.getRow() == 1 || endPosition.getRow() == 8)) {
-                board.addPiece(endPosition, new ChessPiece(piece.getTeamColor(),
-                        move.getPromotionPiece() != null ? move.getPromotionPiece() : ChessPiece.PieceType.QUEEN));
-            }
+        positionHistory[historySize++] = getZobristKey();
+    }
+
+    // Saves the board's undo token with the castling rights, en passant square,
+    // halfmove clock and repetition count the move is about to replace
+    private void pushUndo(int move, int boardUndo) {
+        if (playedMoves == null || undoDepth == playedMoves.length) {
+            int capacity = playedMoves == null ? 64 : playedMoves.length * 2;
+            playedMoves = playedMoves == null ? new int[capacity] : Arrays.copyOf(playedMoves, capacity);
+            undoRecords = undoRecords == null ? new long[capacity] : Arrays.copyOf(undoRecords, capacity);
+            previousLastMoves = previousLastMoves == null ? new int[capacity]
+                    : Arrays.copyOf(previousLastMoves, capacity);
         }
-        lastMove = move;
-        currentTeam = (currentTeam == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        movedPieces.add(startPosition);
-        movedPieces.add(endPosition);
+        playedMoves[undoDepth] = move;
+        undoRecords[undoDepth] = boardUndo & 0xFFFFFFFFL | (long) castlingRights << 32
+                | (long) (enPassantSquare + 1) << 36 | (long) (halfmoveClock & 0xFFFF) << 43
+                | (long) repetitions << 59;
+        previousLastMoves[undoDepth] = lastMove;
+        undoDepth++;
+    }
+
+    private void passTurn() {
+        if (currentTeam == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        currentTeam = currentTeam.opponent();
+        invalidateCache();
+    }
 
+    /**
+     * A position can only repeat one seen since the last capture or pawn move,
+     * with the same side to move, so only every other key in that window is
+     * compared.
+     *
+     * @return how many earlier positions match the current one
+     */
+    private int countRepetitions() {
+        if (halfmoveClock < 4) {
+            return 0;
+        }
+        long key = getZobristKey();
+        int count = 0;
+        int oldest = Math.max(0, historySize - halfmoveClock);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (positionHistory[i] == key) {
+                count++;
+            }
+        }
+        return Math.min(count, 15);
     }
 
-    private final Set<ChessPosition> movedPieces = new HashSet<>();
-    private boolean hasMoved(ChessPosition position) {
-        return movedPieces.contains(position);
+    /**
+     * Takes back the last move played with {@link #playMove(int)} or makeMove
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoDepth == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        undoDepth--;
+        int move = playedMoves[undoDepth];
+        long record = undoRecords[undoDepth];
+        if (move != Move.NONE) {
+            board.unmakeMove(move, (int) record);
+        }
+        castlingRights = (int) (record >>> 32) & 0xF;
+        enPassantSquare = (int) (record >>> 36 & 0x7F) - 1;
+        halfmoveClock = (int) (record >>> 43) & 0xFFFF;
+        repetitions = (int) (record >>> 59);
+        historySize--;
+        lastMove = previousLastMoves[undoDepth];
+        currentTeam = currentTeam.opponent();
+        if (currentTeam == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+        invalidateCache();
     }
 
-    private boolean isCastlingMove(ChessPiece piece, ChessMove move) {
-        if (piece.getPieceType() != ChessPiece.PieceType.KING ||
-                Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) != 2){
-            return false;
+    /**
+     * Gets the legal moves for a team in the current position, generating them
+     * only if the position has changed since they were last asked for. The
+     * cached moves are checked against the position's Zobrist key too, so
+     * pieces added straight to the board are picked up as well.
+     */
+    private LegalMoves legalMoves(TeamColor team) {
+        if (legalMoveCache == null) {
+            legalMoveCache = new LegalMoves[]{new LegalMoves(), new LegalMoves()};
         }
-        int row = move.getStartPosition().getRow();
-        int col = move.getStartPosition().getColumn();
-        int kingCol= move.getStartPosition().getColumn();
-        int rookCol = (col == 7)  ? 8 : 1;
-        ChessPosition rookPos = new ChessPosition(row, rookCol);
-        ChessPiece rook = board.getPiece(rookPos);
-        if (rook == null || rook.getPieceType() != ChessPiece.PieceType.ROOK || hasMoved(rookPos)) {
-            return false;
+        LegalMoves cached = legalMoveCache[team.ordinal()];
+        long key = getZobristKey();
+        if (!cached.valid || cached.key != key) {
+            cached.moves.clear();
+            MoveGenerator.generate(board, team, castlingRights(), enPassantFor(team), ~0L, cached.moves);
+            Collections.fill(cached.bySquare, null);
+            cached.inCheck = isInCheck(team, board);
+            cached.key = key;
+            cached.valid = true;
         }
-        return isValidCastlingPath(row, kingCol, rookCol)&& !isInCheck(currentTeam);
+        return cached;
     }
-    private boolean isValidCastlingPath(int row,int kingCol, int rookCol) {
-        ChessPosition kingPos = new ChessPosition(row,kingCol);
-        ChessPiece king = board.getPiece(kingPos);
-        if(king == null){
-            return false;
+
+    // The en passant square belongs to the side to move; the other side can never capture onto it
+    private int enPassantFor(TeamColor team) {
+        return team == currentTeam ? enPassantSquare : -1;
+    }
+
+    private void invalidateCache() {
+        cachedStatus = null;
+        if (legalMoveCache != null) {
+            legalMoveCache[0].valid = false;
+            legalMoveCache[1].valid = false;
         }
+    }
 
-        int step = (rookCol == 8) ? 1 : -1;
-        for (int col = kingCol + step; col != rookCol; col += step) {
-            ChessPosition pos = new ChessPosition(row, col);
-            if (board.getPiece(pos) != null || (Math.abs(kingCol - col) <= 2
-                    && wouldLeaveKingInCheck(king.getTeamColor(), new ChessMove(new ChessPosition(row, kingCol), pos, null)))) {
-                return false;
+    private static final class LegalMoves {
+        private final MoveList moves = new MoveList();
+        private final List<List<ChessMove>> bySquare = new ArrayList<>(Collections.nCopies(64, null));
+        private long key;
+        private boolean valid;
+        private boolean inCheck;
+
+        /**
+         * @return the moves starting on a square, built the first time each square is asked for
+         */
+        private List<ChessMove> movesFrom(int square) {
+            if (bySquare.get(square) == null) {
+                List<ChessMove> list = new ArrayList<>();
+                for (int i = 0; i < moves.size(); i++) {
+                    if (Move.from(moves.get(i)) == square) {
+                        list.add(Move.toChessMove(moves.get(i)));
+                    }
+                }
+                bySquare.set(square, Collections.unmodifiableList(list));
             }
+            return bySquare.get(square);
         }
-        return true;
     }
-    private void performCastling(ChessMove move) {
-        int row = move.getStartPosition().getRow();
-        int kingCol = move.getEndPosition().getColumn();
-        int rookCol = (kingCol == 7) ? 8 : 1;
-        int newRookCol = (kingCol == 7) ? 6 : 4;
 
-        ChessPiece king = board.getPiece(move.getStartPosition());
-        ChessPiece rook = board.getPiece(new ChessPosition(row, rookCol));
+    /**
+     * Gets the Zobrist key of the current position: the board's piece placement
+     * combined with the side to move, the castling rights and the en passant
+     * square. Positions that play the same get the same key.
+     *
+     * @return 64-bit hash of the position
+     */
+    public long getZobristKey() {
+        return board.getZobristKey() ^ Zobrist.sideToMove(currentTeam)
+                ^ Zobrist.castling(castlingRights()) ^ Zobrist.enPassant(enPassantSquare);
+    }
 
-        board.addPiece(move.getStartPosition(), null);
-        board.addPiece(move.getEndPosition(), king);
-        board.addPiece(new ChessPosition(row, rookCol), null);
-        board.addPiece(new ChessPosition(row, newRookCol), rook);
-        movedPieces.add(move.getStartPosition());
-        movedPieces.add(move.getEndPosition());
+    /**
+     * @return the castling rights still held whose king and rook are on their
+     * home squares, since a board set up or edited directly may have moved them
+     */
+    private int castlingRights() {
+        return castlingRights & homeRights(TeamColor.WHITE, 4, WHITE_KINGSIDE, WHITE_QUEENSIDE)
+                & homeRights(TeamColor.BLACK, 60, BLACK_KINGSIDE, BLACK_QUEENSIDE);
     }
-    private boolean isEnPassantMove(ChessPiece piece, ChessMove move) {
-        if (piece.getPieceType() != ChessPiece.PieceType.PAWN || lastMove == null) {
-            return false;
+
+    // Every right except those of this team whose king or rook is off its home square
+    private int homeRights(TeamColor team, int kingSquare, int kingside, int queenside) {
+        int rights = ALL_CASTLING & ~(kingside | queenside);
+        if ((board.getPieces(team, ChessPiece.PieceType.KING) & (1L << kingSquare)) != 0) {
+            long rooks = board.getPieces(team, ChessPiece.PieceType.ROOK);
+            if ((rooks & (1L << (kingSquare + 3))) != 0) {
+                rights |= kingside;
+            }
+            if ((rooks & (1L << (kingSquare - 4))) != 0) {
+                rights |= queenside;
+            }
         }
+        return rights;
+    }
 
-        ChessPosition lastStart = lastMove.getStartPosition();
-        ChessPosition lastEnd = lastMove.getEndPosition();
-        ChessPiece lastPiece = board.getPiece(lastEnd);
+    // The square skipped by a pawn that just moved two squares, if an enemy pawn is placed to capture onto it
+    private int enPassantTarget(TeamColor mover, int from, int to) {
+        if (Math.abs(to - from) != 16 || (board.getPieces(mover, ChessPiece.PieceType.PAWN) & (1L << to)) == 0) {
+            return -1;
+        }
+        int skipped = (from + to) / 2;
+        long capturers = board.getPieces(mover.opponent(), ChessPiece.PieceType.PAWN);
+        return (Attacks.pawn(mover, skipped) & capturers) != 0 ? skipped : -1;
+    }
 
-        return lastPiece != null && lastPiece.getPieceType() == ChessPiece.PieceType.PAWN &&
-                Math.abs(lastStart.getRow() - lastEnd.getRow()) == 2 &&
-                move.getStartPosition().getRow() == lastEnd.getRow() &&
-                move.getEndPosition().getColumn() == lastStart.getColumn();
+    /**
+     * Fills in the castling rights and en passant square of a game saved before
+     * they were stored, from the squares pieces had moved from or to and the last move
+     *
+     * @param movedPieces every square a move started or ended on
+     */
+    void restoreLegacyState(Collection<ChessPosition> movedPieces) {
+        for (ChessPosition position : movedPieces) {
+            castlingRights &= CASTLING_KEPT[ChessBoard.squareIndex(position)];
+        }
+        enPassantSquare = lastMove == Move.NONE ? -1
+                : enPassantTarget(currentTeam.opponent(), Move.from(lastMove), Move.to(lastMove));
+        invalidateCache();
     }
 
-    private void performEnPassant(ChessMove move) {
-        ChessPosition capturedPawnPos = new ChessPosition(lastMove.getEndPosition().getRow(), lastMove.getEndPosition().getColumn());
-        board.addPiece(capturedPawnPos, null);
-        board.addPiece(move.getEndPosition(), board.getPiece(move.getStartPosition()));
-        board.addPiece(move.getStartPosition(), null);
+
+    /**
+     * Works out the state of the game for the side to move in one pass: whether
+     * it is in check, and whether it has any legal move, stopping at the first
+     * one found. A threefold repetition, fifty moves without a capture or pawn
+     * move, or neither side having the material left to checkmate is a draw.
+     *
+     * @return the status of the side to move
+     */
+    public GameStatus status() {
+        long key = getZobristKey();
+        if (cachedStatus != null && statusKey == key) {
+            return cachedStatus;
+        }
+        boolean inCheck;
+        boolean canMove;
+        LegalMoves cached = legalMoveCache == null ? null : legalMoveCache[currentTeam.ordinal()];
+        if (cached != null && cached.valid && cached.key == key) {
+            inCheck = cached.inCheck;
+            canMove = !cached.moves.isEmpty();
+        } else {
+            inCheck = isInCheck(currentTeam, board);
+            canMove = MoveGenerator.hasLegalMove(board, currentTeam, enPassantSquare);
+        }
+
+        GameStatus status;
+        if (!canMove) {
+            status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        } else if (isThreefoldRepetition() || isFiftyMoveDraw() || hasInsufficientMaterial()) {
+            status = GameStatus.DRAW;
+        } else {
+            status = inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+        }
+        cachedStatus = status;
+        statusKey = key;
+        return status;
     }
 
+    // Bare kings, a single knight or bishop, or bishops that all stand on one square color
+    private boolean hasInsufficientMaterial() {
+        if ((bothTeams(ChessPiece.PieceType.PAWN) | bothTeams(ChessPiece.PieceType.ROOK)
+                | bothTeams(ChessPiece.PieceType.QUEEN)) != 0) {
+            return false;
+        }
+        long knights = bothTeams(ChessPiece.PieceType.KNIGHT);
+        long bishops = bothTeams(ChessPiece.PieceType.BISHOP);
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & DARK_SQUARES) == 0 || (bishops & ~DARK_SQUARES) == 0);
+    }
+
+    private long bothTeams(ChessPiece.PieceType type) {
+        return board.getPieces(TeamColor.WHITE, type) | board.getPieces(TeamColor.BLACK, type);
+    }
 
     /**
      * Determines if the given team is in check
@@ -276,28 +669,8 @@ public class ChessGame {
         return isInCheck(teamColor, board);
     }
     private boolean isInCheck(TeamColor teamColor, ChessBoard boardState) {
-        ChessPosition kingPosition = findKing(teamColor, boardState);
-        if (kingPosition == null){
-            return false;
-        }
-        List<ChessMove> opposingMoves = new ArrayList<>();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = boardState.getPiece(pos);
-                if (piece != null && piece.getTeamColor() != teamColor) {
-                    opposingMoves.addAll(piece.pieceMoves(boardState, pos));
-                }
-            }
-        }
-        Iterator<ChessMove> iterator = opposingMoves.iterator();
-        while (iterator.hasNext()) {
-            ChessMove move = iterator.next();
-            if(move.getEndPosition().equals(kingPosition)){
-                return true;
-            }
-        }
-        return false;
+        int kingSquare = boardState.getKingSquare(teamColor);
+        return kingSquare >= 0 && boardState.isSquareAttacked(kingSquare, teamColor.opponent());
     }
 
 
@@ -308,46 +681,17 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean canMove(ChessBoard boardState, TeamColor teamColor) {
-        List<ChessMove> valid = new ArrayList<>();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = boardState.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-
-                    valid.addAll(validMoves(pos));
-                }
-            }
+        if (boardState == board) {
+            return !legalMoves(teamColor).moves.isEmpty();
         }
-        return !valid.isEmpty();
+        // Castling and en passant rights only belong to this game's own board
+        MoveList moves = new MoveList();
+        MoveGenerator.generate(boardState, teamColor, 0, -1, ~0L, moves);
+        return !moves.isEmpty();
     }
     public boolean isInCheckmate(TeamColor teamColor) {
-        return isInCheck(teamColor) && !canMove(board, teamColor);
-    }
-    private ChessPosition findKing(TeamColor team, ChessBoard boardState) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = boardState.getPiece(pos);
-                if (piece != null && piece.getTeamColor() == team && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    return pos;
-                }
-            }
-        }
-        return null;
-    }
-    private ChessBoard copyBoard() {
-        ChessBoard newBoard = new ChessBoard();
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null) {
-                    newBoard.addPiece(pos, new ChessPiece(piece.getTeamColor(), piece.getPieceType()));
-                }
-            }
-        }
-        return newBoard;
+        LegalMoves legal = legalMoves(teamColor);
+        return legal.inCheck && legal.moves.isEmpty();
     }
 
     /**
@@ -358,7 +702,8 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        return !isInCheck(teamColor) && !canMove(board, teamColor);
+        LegalMoves legal = legalMoves(teamColor);
+        return !legal.inCheck && legal.moves.isEmpty();
 
     }
 
@@ -371,8 +716,15 @@ public class ChessGame {
         if (board == null) {
             throw new IllegalArgumentException("Board cannot be null");
         }
-        movedPieces.clear();
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        historySize = 0;
+        repetitions = 0;
+        undoDepth = 0;
         this.board = board;
+        invalidateCache();
     }
 
     /**
@@ -384,6 +736,62 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * @return the number of moves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return True if the current position has occurred before, which a search
+     * can score as a draw since the same moves could repeat it again
+     */
+    public boolean isRepetition() {
+        return repetitions >= 1;
+    }
+
+    /**
+     * @return True if the current position has now occurred three times
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitions >= 2;
+    }
+
+    /**
+     * @return True if fifty moves by each side have passed without a capture or pawn move
+     */
+    public boolean isFiftyMoveDraw() {
+        return halfmoveClock >= 100;
+    }
+
+    /**
+     * @return the current move number, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return the square a pawn of the side to move may capture onto en passant,
+     * as an index from 0 (a1) to 63 (h8), or -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @param team     the side to ask about
+     * @param kingside True for castling short, false for castling long
+     * @return True if the team still has the right to castle on that side,
+     * whether or not castling is possible right now
+     */
+    public boolean canCastle(TeamColor team, boolean kingside) {
+        int right = team == TeamColor.WHITE ? (kingside ? WHITE_KINGSIDE : WHITE_QUEENSIDE)
+                : (kingside ? BLACK_KINGSIDE : BLACK_QUEENSIDE);
+        return (castlingRights() & right) != 0;
+    }
+
     public boolean isGameOver() {
         return gameOver;
     }
@@ -404,16 +812,27 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
+        if (getZobristKey() != chessGame.getZobristKey()) {
+            return false;
+        }
         return Objects.equals(board, chessGame.board) && currentTeam == chessGame.currentTeam &&
-                Objects.equals(lastMove, chessGame.lastMove) && Objects.equals(movedPieces, chessGame.movedPieces);
+                Move.sameMove(lastMove, chessGame.lastMove) && castlingRights() == chessGame.castlingRights()
+                && enPassantSquare == chessGame.enPassantSquare;
     }
 
     public ChessMove getLastMove() {
-        return lastMove;
+        return lastMove == Move.NONE ? null : Move.toChessMove(lastMove);
+    }
+
+    /**
+     * Sets the last move of a game loaded from JSON, where it is stored as a ChessMove
+     */
+    void restoreLastMove(ChessMove move) {
+        lastMove = move == null ? Move.NONE : Move.fromChessMove(move);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTeam, lastMove, movedPieces);
+        return Long.hashCode(getZobristKey());
     }
 }
@@ -2,9 +2,7 @@ package chess;
 
 import chess.pieces.*;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 import java.util.Objects;
 
 /**
@@ -15,6 +13,19 @@ import java.util.Objects;
  */
 
 public class ChessPiece {
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+    // One stateless generator per piece type, in PieceType order
+    private static final ChessPieceMoves[] GENERATORS =
+            {new King(), new Queen(), new Bishop(), new Knight(), new Rook(), new Pawn()};
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
@@ -22,6 +33,18 @@ public class ChessPiece {
         this.type = type; // Initialize the piece's type
     }
 
+    /**
+     * Gets the shared instance of a piece. Pieces are immutable, so the engine
+     * hands out these 12 instances instead of allocating new ones.
+     *
+     * @param pieceColor the team the piece belongs to
+     * @param type       the type of piece
+     * @return the piece of that team and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[pieceColor.ordinal() * 6 + type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -57,27 +80,18 @@ public class ChessPiece {
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
 
-        ChessPiece piece = board.getPiece(myPosition);
-        List<ChessMove> moves = new ArrayList<>();
-        switch (piece.getPieceType()) {
-            case KING ->
-                moves.addAll(new King().pieceMoves(board,myPosition));
-            case QUEEN ->
-                moves.addAll(new Queen().pieceMoves(board,myPosition));
-            case BISHOP->
-                moves.addAll(new Bishop().pieceMoves(board,myPosition));
-
-
-
-            case KNIGHT ->
-                moves.addAll(new Knight().pieceMoves(board,myPosition));
-            case ROOK->
-                moves.addAll(new Rook().pieceMoves(board,myPosition));
-            case PAWN ->
-                moves.addAll(new Pawn().pieceMoves(board,myPosition));
-        }
+        return GENERATORS[board.getPiece(myPosition).getPieceType().ordinal()].pieceMoves(board, myPosition);
+    }
 
-        return moves;
+    /**
+     * Generates the same moves as {@link #pieceMoves(ChessBoard, ChessPosition)},
+     * handing each one to a sink as a packed {@link Move} instead of building a
+     * collection of them
+     *
+     * @param sink receives each move
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, MoveSink sink) {
+        GENERATORS[board.getPiece(myPosition).getPieceType().ordinal()].generate(board, myPosition, sink);
     }
 
     @Override
@@ -1,7 +1,26 @@
-package chess;
-import java.util.Collection;
-
-
-public interface ChessPieceMoves {
-    public Collection<ChessMove> pieceMoves(ChessBoard board,ChessPosition position);
-}
+package chess;
+
+import java.util.Collection;
+
+/**
+ * Generates the moves one type of piece can make from a square, ignoring
+ * whether they leave the king in check. Generators hold no state, so one
+ * instance per piece type serves every board.
+ */
+public interface ChessPieceMoves {
+    /**
+     * @param board    the board the piece is on
+     * @param position the piece's square
+     * @param sink     receives each move as a packed {@link Move}
+     */
+    void generate(ChessBoard board, ChessPosition position, MoveSink sink);
+
+    /**
+     * Collects the moves into a new collection, for callers that want ChessMove objects
+     */
+    default Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition position) {
+        MoveList moves = new MoveList(32);
+        generate(board, position, moves);
+        return moves.toChessMoves();
+    }
+}
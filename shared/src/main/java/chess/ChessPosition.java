@@ -10,6 +10,14 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPosition {
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            POSITIONS[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
     private final int row;
     private final int col;
     /**
@@ -25,6 +33,21 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a square. Positions are immutable, so the
+     * engine hands out these 64 instances instead of allocating new ones.
+     *
+     * @param row the row number (1-8)
+     * @param col the column number (1-8)
+     * @return the position at that row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IllegalArgumentException("Row and column must be between 1 and 8.");
+        }
+        return POSITIONS[(row - 1) * 8 + col - 1];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,132 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gson adapters for the chess classes, attached with {@code @JsonAdapter} so
+ * every Gson instance picks them up. Games are still written field by field,
+ * but games saved before the board moved to bitboards, or before castling
+ * rights and the en passant square were stored, stay readable.
+ */
+final class JsonFormat implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() == ChessBoard.class) {
+            return (TypeAdapter<T>) new BoardAdapter(gson, (TypeAdapter<ChessBoard>) gson.getDelegateAdapter(this, type));
+        }
+        if (type.getRawType() == ChessGame.class) {
+            return (TypeAdapter<T>) new GameAdapter(gson, (TypeAdapter<ChessGame>) gson.getDelegateAdapter(this, type));
+        }
+        return null;
+    }
+
+    /**
+     * Reads a board either as bitboards or in the old layout, a grid of
+     * {@code squares} indexed by [row - 1][column - 1] with null for an empty square
+     */
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private final TypeAdapter<ChessBoard> delegate;
+        private final TypeAdapter<ChessPiece> pieces;
+        private final TypeAdapter<JsonElement> elements;
+
+        private BoardAdapter(Gson gson, TypeAdapter<ChessBoard> delegate) {
+            this.delegate = delegate;
+            pieces = gson.getAdapter(ChessPiece.class);
+            elements = gson.getAdapter(JsonElement.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            delegate.write(out, board);
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            JsonElement json = elements.read(in);
+            if (!json.isJsonObject() || !json.getAsJsonObject().has("squares")) {
+                return delegate.fromJsonTree(json);
+            }
+            ChessBoard board = new ChessBoard();
+            JsonArray rows = json.getAsJsonObject().getAsJsonArray("squares");
+            for (int row = 0; row < rows.size(); row++) {
+                JsonArray columns = rows.get(row).getAsJsonArray();
+                for (int col = 0; col < columns.size(); col++) {
+                    ChessPiece piece = pieces.fromJsonTree(columns.get(col));
+                    if (piece != null) {
+                        board.addPiece(ChessPosition.of(row + 1, col + 1), piece);
+                    }
+                }
+            }
+            return board;
+        }
+    }
+
+    /**
+     * Writes a game with only the used part of its position history and its
+     * packed last move as a ChessMove, and reads one, working out castling
+     * rights and the en passant square from the {@code movedPieces} set and
+     * last move that older games were saved with
+     */
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+        private final TypeAdapter<ChessGame> delegate;
+        private final TypeAdapter<ChessPosition> positions;
+        private final TypeAdapter<ChessMove> moves;
+        private final TypeAdapter<JsonElement> elements;
+
+        private GameAdapter(Gson gson, TypeAdapter<ChessGame> delegate) {
+            this.delegate = delegate;
+            positions = gson.getAdapter(ChessPosition.class);
+            moves = gson.getAdapter(ChessMove.class);
+            elements = gson.getAdapter(JsonElement.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            JsonElement json = delegate.toJsonTree(game);
+            if (json.isJsonObject() && json.getAsJsonObject().has("positionHistory")) {
+                JsonObject fields = json.getAsJsonObject();
+                JsonArray history = fields.getAsJsonArray("positionHistory");
+                JsonArray used = new JsonArray();
+                for (int i = 0; i < fields.get("historySize").getAsInt(); i++) {
+                    used.add(history.get(i));
+                }
+                fields.add("positionHistory", used);
+            }
+            if (json.isJsonObject() && game.getLastMove() != null) {
+                json.getAsJsonObject().add("lastMove", moves.toJsonTree(game.getLastMove()));
+            }
+            elements.write(out, json);
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            JsonElement json = elements.read(in);
+            ChessGame game = delegate.fromJsonTree(json);
+            if (game != null && json.getAsJsonObject().has("lastMove")) {
+                game.restoreLastMove(moves.fromJsonTree(json.getAsJsonObject().get("lastMove")));
+            }
+            if (game != null && json.getAsJsonObject().has("movedPieces")) {
+                List<ChessPosition> moved = new ArrayList<>();
+                for (JsonElement position : json.getAsJsonObject().getAsJsonArray("movedPieces")) {
+                    moved.add(positions.fromJsonTree(position));
+                }
+                game.restoreLegacyState(moved);
+            }
+            return game;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package chess;
+
+/**
+ * Packs a move into a single {@code int} so move generation doesn't allocate.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square (a1 = 0,
+ * h8 = 63), bits 12-14 the promotion piece type ordinal plus one (zero for no
+ * promotion), and the bits above that flag what kind of move it is. The flags
+ * are informational: the board works out castling and en passant from the
+ * squares alone, so a move converted from a {@link ChessMove} plays the same
+ * without them.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLING = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    // The start, end and promotion bits, which identify a move regardless of flags
+    private static final int IDENTITY = 0x7FFF;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * @return a packed move with no promotion or flags
+     */
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    /**
+     * @param from      start square (0-63)
+     * @param to        end square (0-63)
+     * @param promotion piece to promote to, or null
+     * @param flags     any of the move kind flags, or'd together
+     * @return the packed move
+     */
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        return from | to << 6 | (promotion == null ? 0 : (promotion.ordinal() + 1) << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece type to promote to, or null if the move isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 0x7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return True if both packed moves have the same start, end and promotion
+     */
+    public static boolean sameMove(int a, int b) {
+        return (a & IDENTITY) == (b & IDENTITY);
+    }
+
+    public static int fromChessMove(ChessMove move) {
+        return of(ChessBoard.squareIndex(move.getStartPosition()), ChessBoard.squareIndex(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessBoard.toPosition(from(move)), ChessBoard.toPosition(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e2e4 or a7a8q
+     */
+    public static String toString(int move) {
+        StringBuilder text = new StringBuilder(5)
+                .append(ChessBoard.toPosition(from(move)).prettyOutput())
+                .append(ChessBoard.toPosition(to(move)).prettyOutput());
+        ChessPiece.PieceType promotion = promotion(move);
+        if (promotion != null) {
+            text.append(switch (promotion) {
+                case QUEEN -> 'q';
+                case ROOK -> 'r';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                case KING -> 'k';
+                case PAWN -> 'p';
+            });
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,192 @@
+package chess;
+
+import chess.pieces.Attacks;
+
+/**
+ * Generates strictly legal moves for one side of a position.
+ * <p>
+ * Instead of trying each pseudo-legal move and testing for check afterward,
+ * the checkers and pinned pieces are found once up front. In check, every
+ * non-king move is masked to capturing the checker or blocking its ray, and a
+ * pinned piece may only slide along the line between its king and the pinner.
+ * King moves are tested against attacks with the king lifted off the board, so
+ * it can't step back along a slider's ray. En passant, which can expose the
+ * king along the rank by removing two pieces at once, is the one move still
+ * verified by playing it out.
+ */
+final class MoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES =
+            {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * @param board          the position
+     * @param team           the side to generate moves for
+     * @param castlingRights castling rights still held, as ChessGame's bit flags
+     * @param enPassant      square a pawn may capture onto en passant, or -1
+     * @param fromMask       only generate moves for pieces on these squares
+     * @param moves          receives every legal move for the team's pieces on the given squares
+     */
+    static void generate(ChessBoard board, ChessGame.TeamColor team, int castlingRights,
+                         int enPassant, long fromMask, MoveList moves) {
+        generate(board, team, castlingRights, enPassant, fromMask, moves, false);
+    }
+
+    /**
+     * Checks whether a team has any legal move, stopping at the first piece
+     * found to have one instead of generating them all. Castling is left out:
+     * whenever castling is legal, so is the king's step toward the rook.
+     *
+     * @param board     the position
+     * @param team      the side to check
+     * @param enPassant square a pawn may capture onto en passant, or -1
+     * @return True if the team has at least one legal move
+     */
+    static boolean hasLegalMove(ChessBoard board, ChessGame.TeamColor team, int enPassant) {
+        MoveList moves = new MoveList(32);
+        generate(board, team, 0, enPassant, ~0L, moves, true);
+        return !moves.isEmpty();
+    }
+
+    private static void generate(ChessBoard board, ChessGame.TeamColor team, int castlingRights,
+                                 int enPassant, long fromMask, MoveList moves, boolean stopAtFirst) {
+        ChessGame.TeamColor enemy = team.opponent();
+        long own = board.getTeamPieces(team);
+        long theirs = board.getTeamPieces(enemy);
+        long occupied = own | theirs;
+        int king = board.getKingSquare(team);
+
+        long checkMask = ~0L;
+        long pinned = 0;
+        if (king >= 0) {
+            long kingBit = 1L << king;
+            if ((fromMask & kingBit) != 0) {
+                for (long targets = Attacks.king(king) & ~own; targets != 0; targets &= targets - 1) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    if (board.getAttackers(to, enemy, occupied ^ kingBit) == 0) {
+                        moves.add(Move.of(king, to, null, captureFlag(theirs, to)));
+                    }
+                }
+                if (stopAtFirst && !moves.isEmpty()) {
+                    return;
+                }
+            }
+
+            long checkers = board.getAttackers(king, enemy, occupied);
+            if (Long.bitCount(checkers) > 1) {
+                return; // Double check: only the king can move
+            }
+            if (checkers != 0) {
+                checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            } else if ((fromMask & kingBit) != 0) {
+                addCastling(moves, board, team, king, castlingRights, occupied);
+            }
+
+            // Enemy sliders lined up on the king with exactly one of our pieces in the way pin it
+            long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+            long snipers = (Attacks.rook(king, theirs) & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                    | (Attacks.bishop(king, theirs) & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+            for (; snipers != 0; snipers &= snipers - 1) {
+                long blockers = Attacks.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+                if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                    pinned |= blockers;
+                }
+            }
+        }
+
+        for (long pieces = own & fromMask & ~board.getPieces(team, ChessPiece.PieceType.KING);
+             pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            long mask = checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                mask &= Attacks.line(king, from);
+            }
+            long targets = switch (board.getPiece(from).getPieceType()) {
+                case QUEEN -> Attacks.queen(from, occupied) & ~own;
+                case BISHOP -> Attacks.bishop(from, occupied) & ~own;
+                case KNIGHT -> Attacks.knight(from) & ~own;
+                case ROOK -> Attacks.rook(from, occupied) & ~own;
+                case PAWN -> pawnTargets(board, team, from, occupied, theirs);
+                case KING -> 0;
+            };
+            boolean pawn = board.getPiece(from).getPieceType() == ChessPiece.PieceType.PAWN;
+            for (targets &= mask; targets != 0; targets &= targets - 1) {
+                int to = Long.numberOfTrailingZeros(targets);
+                int flags = captureFlag(theirs, to);
+                if (pawn && (to / 8 == 0 || to / 8 == 7)) {
+                    for (ChessPiece.PieceType type : PROMOTION_TYPES) {
+                        moves.add(Move.of(from, to, type, flags));
+                    }
+                } else {
+                    if (pawn && Math.abs(to - from) == 16) {
+                        flags |= Move.DOUBLE_PUSH;
+                    }
+                    moves.add(Move.of(from, to, null, flags));
+                }
+            }
+            if (pawn && enPassant >= 0 && (Attacks.pawn(team, from) & (1L << enPassant)) != 0) {
+                addEnPassant(moves, board, team, from, enPassant);
+            }
+            if (stopAtFirst && !moves.isEmpty()) {
+                return;
+            }
+        }
+    }
+
+    private static long pawnTargets(ChessBoard board, ChessGame.TeamColor team, int from, long occupied, long theirs) {
+        int step = team == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int startRow = team == ChessGame.TeamColor.WHITE ? 1 : 6;
+        long targets = Attacks.pawn(team, from) & theirs;
+        int next = from + step;
+        if (next >= 0 && next < 64 && (occupied & (1L << next)) == 0) {
+            targets |= 1L << next;
+            int jump = next + step;
+            if (from / 8 == startRow && (occupied & (1L << jump)) == 0) {
+                targets |= 1L << jump;
+            }
+        }
+        return targets;
+    }
+
+    private static void addEnPassant(MoveList moves, ChessBoard board, ChessGame.TeamColor team,
+                                     int from, int to) {
+        int move = Move.of(from, to, null, Move.CAPTURE | Move.EN_PASSANT);
+        int undo = board.makeMove(move);
+        int king = board.getKingSquare(team);
+        boolean legal = king < 0 || !board.isSquareAttacked(king, team.opponent());
+        board.unmakeMove(move, undo);
+        if (legal) {
+            moves.add(move);
+        }
+    }
+
+    private static void addCastling(MoveList moves, ChessBoard board, ChessGame.TeamColor team,
+                                    int king, int castlingRights, long occupied) {
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int home = white ? 4 : 60;
+        if (king != home) {
+            return;
+        }
+        int kingside = white ? ChessGame.WHITE_KINGSIDE : ChessGame.BLACK_KINGSIDE;
+        int queenside = white ? ChessGame.WHITE_QUEENSIDE : ChessGame.BLACK_QUEENSIDE;
+        long rooks = board.getPieces(team, ChessPiece.PieceType.ROOK);
+        ChessGame.TeamColor enemy = team.opponent();
+
+        if ((castlingRights & kingside) != 0 && (rooks & (1L << (home + 3))) != 0
+                && (Attacks.between(home, home + 3) & occupied) == 0
+                && !board.isSquareAttacked(home + 1, enemy) && !board.isSquareAttacked(home + 2, enemy)) {
+            moves.add(Move.of(home, home + 2, null, Move.CASTLING));
+        }
+        if ((castlingRights & queenside) != 0 && (rooks & (1L << (home - 4))) != 0
+                && (Attacks.between(home, home - 4) & occupied) == 0
+                && !board.isSquareAttacked(home - 1, enemy) && !board.isSquareAttacked(home - 2, enemy)) {
+            moves.add(Move.of(home, home - 2, null, Move.CASTLING));
+        }
+    }
+
+    private static int captureFlag(long theirs, int to) {
+        return (theirs & (1L << to)) != 0 ? Move.CAPTURE : 0;
+    }
+}
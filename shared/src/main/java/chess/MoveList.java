@@ -0,0 +1,84 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A reusable, growable buffer of packed {@link Move}s. Generating into one
+ * list per search ply and clearing it between positions means move generation
+ * allocates nothing once the buffers are warm.
+ */
+public final class MoveList implements MoveSink {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    @Override
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from an index on, keeping the ones before it
+     */
+    public void truncate(int size) {
+        if (size < 0 || size > this.size) {
+            throw new IndexOutOfBoundsException(size);
+        }
+        this.size = size;
+    }
+
+    /**
+     * @return the index of a move with the same start, end and promotion, or -1
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.sameMove(moves[i], move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the moves as ChessMove objects, for handing out through the public API
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(Move.toChessMove(moves[i]));
+        }
+        return list;
+    }
+}
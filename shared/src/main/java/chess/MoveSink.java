@@ -0,0 +1,13 @@
+package chess;
+
+/**
+ * Receives moves one at a time as a piece's moves are generated, so a caller
+ * that only counts or filters them needs no collection at all.
+ */
+@FunctionalInterface
+public interface MoveSink {
+    /**
+     * @param move a move packed by {@link Move}
+     */
+    void add(int move);
+}
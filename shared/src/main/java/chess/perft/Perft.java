@@ -0,0 +1,223 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth (perft). The
+ * counts for standard positions are published, so perft is the correctness
+ * check for move generation as well as a measure of its speed.
+ * <p>
+ * The upper plies of the tree are split into fork/join tasks, each working on
+ * its own copy of the game, and subtrees of {@link #SEQUENTIAL_DEPTH} plies or
+ * fewer are counted by a single thread making and unmaking moves in place. An
+ * optional table shared by all threads reuses the counts of subtrees reached
+ * by more than one move order.
+ * <p>
+ * Closing a Perft shuts down its worker threads.
+ */
+public class Perft implements AutoCloseable {
+    private static final int SEQUENTIAL_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+    private final PerftTable table;
+
+    /**
+     * Uses every available core and no table
+     */
+    public Perft() {
+        this(Runtime.getRuntime().availableProcessors(), 0);
+    }
+
+    /**
+     * @param threads      number of worker threads
+     * @param tableEntries positions to cache subtree counts for, or 0 for no table
+     */
+    public Perft(int threads, int tableEntries) {
+        pool = new ForkJoinPool(threads);
+        table = tableEntries > 0 ? new PerftTable(tableEntries) : null;
+    }
+
+    /**
+     * @param game  the position to count from; it is not modified
+     * @param depth number of plies to search, at least 0
+     * @return number of leaf nodes at that depth
+     * @throws IllegalArgumentException if the depth is negative
+     */
+    public long count(ChessGame game, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Perft depth must be at least 0, got " + depth);
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        return pool.invoke(new Subtree(new ChessGame(game), depth, table));
+    }
+
+    /**
+     * Counts the leaf nodes under each root move separately, for comparing
+     * against another move generator to find which move it disagrees on
+     *
+     * @param game  the position to count from; it is not modified
+     * @param depth number of plies to search, at least 1
+     * @return node count for each root move in coordinate notation, sorted by move
+     * @throws IllegalArgumentException if the depth is less than 1
+     */
+    public Map<String, Long> divide(ChessGame game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide depth must be at least 1, got " + depth);
+        }
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(game.getTeamTurn(), moves);
+        List<Subtree> subtrees = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            ChessGame child = new ChessGame(game);
+            child.playMove(moves.get(i));
+            subtrees.add(new Subtree(child, depth - 1, table));
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(subtrees)));
+        Map<String, Long> counts = new TreeMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            counts.put(Move.toString(moves.get(i)), subtrees.get(i).join());
+        }
+        return counts;
+    }
+
+    /**
+     * Shuts down the worker threads once any count in progress has finished
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // Tasks are never serialized, so the game and table they work on are transient
+    private static final class Subtree extends RecursiveTask<Long> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient ChessGame game;
+        private final int depth;
+        private final transient PerftTable table;
+
+        private Subtree(ChessGame game, int depth, PerftTable table) {
+            this.game = game;
+            this.depth = depth;
+            this.table = table;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                MoveList[] buffers = new MoveList[depth + 1];
+                for (int i = 0; i <= depth; i++) {
+                    buffers[i] = new MoveList();
+                }
+                return countSequential(game, depth, buffers);
+            }
+            long key = 0;
+            if (table != null) {
+                key = game.getZobristKey();
+                long cached = table.probe(key, depth);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+            MoveList moves = new MoveList();
+            game.generateLegalMoves(game.getTeamTurn(), moves);
+            List<Subtree> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.playMove(moves.get(i));
+                children.add(new Subtree(child, depth - 1, table));
+            }
+            long nodes = 0;
+            for (Subtree child : invokeAll(children)) {
+                nodes += child.join();
+            }
+            if (table != null) {
+                table.store(key, depth, nodes);
+            }
+            return nodes;
+        }
+
+        private long countSequential(ChessGame game, int depth, MoveList[] buffers) {
+            if (depth == 0) {
+                return 1;
+            }
+            long key = 0;
+            if (table != null && depth > 1) {
+                key = game.getZobristKey();
+                long cached = table.probe(key, depth);
+                if (cached >= 0) {
+                    return cached;
+                }
+            }
+            MoveList moves = buffers[depth];
+            moves.clear();
+            game.generateLegalMoves(game.getTeamTurn(), moves);
+            if (depth == 1) {
+                return moves.size(); // Leaves don't need to be played, only counted
+            }
+            long nodes = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                game.playMove(moves.get(i));
+                nodes += countSequential(game, depth - 1, buffers);
+                game.undoMove();
+            }
+            if (table != null) {
+                table.store(key, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs perft from the command line.
+     * <p>
+     * {@code Perft <position|all> <depth> [divide]} counts one of the
+     * {@link PerftPosition}s (or every one, checking the published counts) on
+     * all cores with a subtree table, printing nodes per second. With
+     * {@code divide}, the count under each root move is printed too.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: Perft <position|all> <depth> [divide]");
+            return;
+        }
+        int depth = Integer.parseInt(args[1]);
+        boolean divide = args.length > 2 && args[2].equals("divide");
+        try (Perft perft = new Perft(Runtime.getRuntime().availableProcessors(), 1 << 22)) {
+            List<PerftPosition> positions = args[0].equalsIgnoreCase("all")
+                    ? List.of(PerftPosition.values()) : List.of(PerftPosition.valueOf(args[0].toUpperCase()));
+
+            for (PerftPosition position : positions) {
+                ChessGame game = position.createGame();
+                long start = System.nanoTime();
+                long nodes;
+                if (divide) {
+                    Map<String, Long> counts = perft.divide(game, depth);
+                    counts.forEach((move, count) -> System.out.println(move + ": " + count));
+                    nodes = counts.values().stream().mapToLong(Long::longValue).sum();
+                } else {
+                    nodes = perft.count(game, depth);
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                String check = depth > position.maxDepth() ? ""
+                        : nodes == position.expectedNodes(depth) ? "  ok" : "  MISMATCH, expected " + position.expectedNodes(depth);
+                System.out.printf("%s depth %d: %d nodes in %.2fs (%.1f Mnps)%s%n",
+                        position, depth, nodes, seconds, nodes / seconds / 1e6, check);
+            }
+        }
+    }
+}
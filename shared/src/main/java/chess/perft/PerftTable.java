@@ -0,0 +1,42 @@
+package chess.perft;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free cache of subtree node counts keyed by position, shared by every
+ * perft worker thread. Each slot holds the key XORed with the data next to the
+ * data itself; a slot torn by two threads writing at once no longer XORs back
+ * to the key, so it simply reads as a miss.
+ */
+final class PerftTable {
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param entries number of positions to hold, rounded up to a power of two
+     */
+    PerftTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries - 1)) << 1;
+        slots = new AtomicLongArray(size * 2);
+        mask = size - 1;
+    }
+
+    /**
+     * @return the node count stored for this position and depth, or -1 if there is none
+     */
+    long probe(long key, int depth) {
+        int index = ((int) key & mask) * 2;
+        long data = slots.getOpaque(index + 1);
+        if ((slots.getOpaque(index) ^ data) != key || (data & 0xFF) != depth) {
+            return -1;
+        }
+        return data >>> 8;
+    }
+
+    void store(long key, int depth, long nodes) {
+        int index = ((int) key & mask) * 2;
+        long data = nodes << 8 | depth;
+        slots.setOpaque(index, key ^ data);
+        slots.setOpaque(index + 1, data);
+    }
+}
@@ -0,0 +1,241 @@
+package chess.pieces;
+
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveSink;
+
+import java.util.Random;
+
+/**
+ * Precomputed attack tables, indexed by square (a1 = 0, h8 = 63).
+ * <p>
+ * Knights, kings and pawns have a fixed attack set per square (and per team
+ * for pawns), so they are simple lookups.
+ * <p>
+ * Sliding pieces use magic bitboards: the blockers on a piece's rays are
+ * multiplied by a per-square magic number so the top bits of the product
+ * index straight into a table of attack sets. The magics are searched for
+ * once, with a fixed seed, when the class is loaded.
+ */
+public final class Attacks {
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_OFFSETS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+    private static final int[][] KING_OFFSETS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    static {
+        Random random = new Random(0x5EED_C4E55L);
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = offsetAttacks(square, KNIGHT_OFFSETS);
+            KING_ATTACKS[square] = offsetAttacks(square, KING_OFFSETS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = offsetAttacks(square, new int[][]{{1, 1}, {1, -1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = offsetAttacks(square, new int[][]{{-1, 1}, {-1, -1}});
+            initMagic(square, ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_TABLE, random);
+            initMagic(square, BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_TABLE, random);
+        }
+        for (int from = 0; from < 64; from++) {
+            initLines(from, ROOK_DIRECTIONS);
+            initLines(from, BISHOP_DIRECTIONS);
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * @return squares a knight on the given square attacks
+     */
+    public static long knight(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a king on the given square attacks
+     */
+    public static long king(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a pawn of the given team on the given square can capture on
+     */
+    public static long pawn(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @return squares a rook on the given square attacks, stopping at (and including) the first blocker
+     */
+    public static long rook(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[square][index];
+    }
+
+    /**
+     * @return squares a bishop on the given square attacks, stopping at (and including) the first blocker
+     */
+    public static long bishop(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[square][index];
+    }
+
+    /**
+     * @return squares a queen on the given square attacks, stopping at (and including) the first blocker
+     */
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return squares strictly between two squares on a shared rank, file or diagonal,
+     * or an empty set if they don't share one
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal running through both squares
+     * (edge to edge), or an empty set if they don't share one
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Sends a move from the start square to every square in the target set,
+     * flagged as a capture where it lands on an enemy piece
+     */
+    static void addMoves(int from, long targets, long enemies, MoveSink sink) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            sink.add(Move.of(from, to, null, (enemies & (1L << to)) != 0 ? Move.CAPTURE : 0));
+        }
+    }
+
+    private static long offsetAttacks(int square, int[][] offsets) {
+        long attacks = 0;
+        for (int[] offset : offsets) {
+            int row = square / 8 + offset[0];
+            int col = square % 8 + offset[1];
+            if (onBoard(row, col)) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+
+    private static void initLines(int from, int[][] directions) {
+        for (int[] direction : directions) {
+            long ray = slidingAttacks(from, 0, new int[][]{direction});
+            long backRay = slidingAttacks(from, 0, new int[][]{{-direction[0], -direction[1]}});
+            long between = 0;
+            int row = from / 8 + direction[0];
+            int col = from % 8 + direction[1];
+            while (onBoard(row, col)) {
+                int to = row * 8 + col;
+                BETWEEN[from][to] = between;
+                LINE[from][to] = ray | backRay | (1L << from);
+                between |= 1L << to;
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+    }
+
+    private static void initMagic(int square, int[][] directions, long[] masks, long[] magics, int[] shifts,
+                                  long[][] tables, Random random) {
+        long mask = relevantMask(square, directions);
+        int bits = Long.bitCount(mask);
+        int size = 1 << bits;
+
+        // Every subset of the mask, paired with the attack set it produces
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] epoch = new int[size];
+        for (int attempt = 1; ; attempt++) {
+            long magic = random.nextLong() & random.nextLong() & random.nextLong();
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean collision = false;
+            for (int i = 0; i < size && !collision; i++) {
+                int index = (int) ((occupancies[i] * magic) >>> (64 - bits));
+                if (epoch[index] != attempt) {
+                    epoch[index] = attempt;
+                    table[index] = attacks[i];
+                } else if (table[index] != attacks[i]) {
+                    collision = true;
+                }
+            }
+            if (!collision) {
+                masks[square] = mask;
+                magics[square] = magic;
+                shifts[square] = 64 - bits;
+                tables[square] = table;
+                return;
+            }
+        }
+    }
+
+    // The squares whose occupancy can change the attack set; the last square on each ray never can
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (onBoard(row + direction[0], col + direction[1])) {
+                mask |= 1L << (row * 8 + col);
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = square / 8 + direction[0];
+            int col = square % 8 + direction[1];
+            while (onBoard(row, col)) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
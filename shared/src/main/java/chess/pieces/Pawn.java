@@ -2,95 +2,45 @@ package chess.pieces;
 
 import chess.*;
 
-import java.util.*;
-
 public class Pawn implements ChessPieceMoves {
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES =
+            {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
 
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition position) {
-        List<ChessMove> validMoves = new ArrayList<>();
-        ChessPiece piece = board.getPiece(position);
-        int moveDirection = 0;
-        boolean isStartingPosition = false;
-
-        // Determine direction and starting position based on piece color
-        if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) {
-            moveDirection = -1;
-            isStartingPosition = position.getRow() == 7;
-        } else if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            moveDirection = 1;
-            isStartingPosition = position.getRow() == 2;
+    public void generate(ChessBoard board, ChessPosition position, MoveSink sink) {
+        int square = ChessBoard.squareIndex(position);
+        ChessGame.TeamColor team = board.getPiece(square).getTeamColor();
+        ChessGame.TeamColor enemy = team.opponent();
+
+        // Determine direction and starting row based on piece color
+        int step = team == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int startRow = team == ChessGame.TeamColor.WHITE ? 2 : 7;
+        long empty = ~board.getOccupied();
+
+        // Forward pushes, with the double step only from the starting row through an empty square
+        int next = square + step;
+        if (next >= 0 && next < 64 && (empty & (1L << next)) != 0) {
+            addMoves(square, next, 0, sink);
+            int jump = next + step;
+            if (position.getRow() == startRow && (empty & (1L << jump)) != 0) {
+                addMoves(square, jump, Move.DOUBLE_PUSH, sink);
+            }
         }
 
-        // Gather all valid moves for the pawn
-        validMoves.addAll(forwardMoves(board, position, moveDirection, isStartingPosition));
-        validMoves.addAll(captureMoves(board, position, moveDirection, piece));
-
-        return validMoves;
-    }
-
-    private Collection<ChessMove> promotionMoves(ChessPosition start, ChessPosition end) {
-        List<ChessMove> promotionMoves = new ArrayList<>();
-        ChessPiece.PieceType[] promotionTypes =
-                {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
-
-        for (ChessPiece.PieceType type : promotionTypes) {
-            promotionMoves.add(new ChessMove(start, end, type));
+        // Diagonal captures come straight from the attack table
+        for (long captures = Attacks.pawn(team, square) & board.getTeamPieces(enemy); captures != 0; captures &= captures - 1) {
+            addMoves(square, Long.numberOfTrailingZeros(captures), Move.CAPTURE, sink);
         }
-        return promotionMoves;
     }
 
-    private Collection<ChessMove> forwardMoves(ChessBoard board, ChessPosition position, int direction, boolean isStartingPosition) {
-        List<ChessMove> forwardMoves = new ArrayList<>();
-        int newRow = position.getRow() + direction;
-        int column = position.getColumn();
-        ChessPosition nextPosition = new ChessPosition(newRow, column);
-
-        // Check if the move is within the board's boundaries
-        if (isValidPosition(newRow, column)) {
-            ChessPiece nextPiece = board.getPiece(nextPosition);
-            // If no piece is blocking the forward path
-            if (nextPiece == null) {
-                // If reaching the promotion row
-                if (newRow == 1 || newRow == 8) {
-                    forwardMoves.addAll(promotionMoves(position, nextPosition));
-                } else {
-                    forwardMoves.add(new ChessMove(position, nextPosition, null));
-                    if (isStartingPosition) {
-                        forwardMoves.addAll(forwardMoves(board, position, direction * 2, false)); // Double step on first move
-                    }
-                }
+    private void addMoves(int from, int to, int flags, MoveSink sink) {
+        // Reaching the last row promotes, so add one move per promotion choice
+        if (to < 8 || to >= 56) {
+            for (ChessPiece.PieceType type : PROMOTION_TYPES) {
+                sink.add(Move.of(from, to, type, flags));
             }
+        } else {
+            sink.add(Move.of(from, to, null, flags));
         }
-        return forwardMoves;
-    }
-
-    private Collection<ChessMove> captureMoves(ChessBoard board, ChessPosition position, int direction, ChessPiece piece) {
-        List<ChessMove> captureMoves = new ArrayList<>();
-        int newRow = position.getRow() + direction;
-
-        // Check diagonals for capturing opponent pieces
-        for (int i = -1; i <= 1; i += 2) {
-            int newColumn = position.getColumn() + i;
-
-
-            // Validate the move and check if there's an opponent piece to capture
-            if (isValidPosition(newRow, newColumn)) {
-                ChessPosition nextPosition = new ChessPosition(newRow, newColumn);
-                ChessPiece targetPiece = board.getPiece(nextPosition);
-                if (targetPiece != null && targetPiece.getTeamColor() != piece.getTeamColor()) {
-                    if (newRow == 1 || newRow == 8) {
-                        captureMoves.addAll(promotionMoves(position, nextPosition));
-                    } else {
-                        captureMoves.add(new ChessMove(position, nextPosition, null));
-                    }
-                }
-            }
-        }
-        return captureMoves;
-    }
-
-    private boolean isValidPosition(int row, int col) {
-        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
     }
 }
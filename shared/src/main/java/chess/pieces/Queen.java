@@ -2,19 +2,15 @@ package chess.pieces;
 
 import chess.*;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 public class Queen implements ChessPieceMoves {
 
     @Override
-    public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition position) {
-        List<ChessMove> moves = new ArrayList<>();
-        //get all the moves that a Rook or a Bishop in the position of the Queen could do
-        moves.addAll(new Bishop().pieceMoves(board, position));
-        moves.addAll(new Rook().pieceMoves(board, position));
+    public void generate(ChessBoard board, ChessPosition position, MoveSink sink) {
+        int square = ChessBoard.squareIndex(position);
+        ChessGame.TeamColor team = board.getPiece(square).getTeamColor();
 
-        return moves;
+        // Table lookup along the rays of both a rook and a bishop, minus squares held by our own pieces
+        long targets = Attacks.queen(square, board.getOccupied()) & ~board.getTeamPieces(team);
+        Attacks.addMoves(square, targets, board.getTeamPieces(team.opponent()), sink);
     }
 }
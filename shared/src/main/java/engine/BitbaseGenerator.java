@@ -0,0 +1,184 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.pieces.Attacks;
+
+/**
+ * Solves a king and one piece against a bare king by working backward from
+ * the mates. Every position starts undecided except the mates, stalemates and
+ * captures of the lone piece; then passes over the table mark a position won
+ * when the stronger side can move into a won one, or when every move of the
+ * lone king leads into one, until a pass changes nothing. Whatever is left
+ * undecided can never be forced, so it is a draw.
+ * <p>
+ * Positions are indexed with the stronger side as white, as side to move
+ * (stronger side first), stronger king, lone king and piece square, six bits
+ * each: 2 * 64 * 64 * 64 positions, one bit each in the finished table.
+ */
+final class BitbaseGenerator {
+    static final int POSITIONS = 2 * 64 * 64 * 64;
+
+    private static final byte INVALID = 0;
+    private static final byte UNKNOWN = 1;
+    private static final byte WIN = 2;
+    private static final byte DRAW = 3;
+
+    private final ChessPiece.PieceType piece;
+    private final long[] queenWins;
+    private final long[] rookWins;
+    private final byte[] state = new byte[POSITIONS];
+
+    /**
+     * @param piece     the stronger side's piece: queen, rook or pawn
+     * @param queenWins the finished queen table, which a pawn promotes into
+     * @param rookWins  the finished rook table, for promoting to a rook
+     */
+    private BitbaseGenerator(ChessPiece.PieceType piece, long[] queenWins, long[] rookWins) {
+        this.piece = piece;
+        this.queenWins = queenWins;
+        this.rookWins = rookWins;
+    }
+
+    /**
+     * @param piece     the stronger side's piece: queen, rook or pawn
+     * @param queenWins the finished queen table, needed for a pawn
+     * @param rookWins  the finished rook table, needed for a pawn
+     * @return one bit per position, set where the stronger side wins
+     */
+    static long[] generate(ChessPiece.PieceType piece, long[] queenWins, long[] rookWins) {
+        if (piece == ChessPiece.PieceType.PAWN && (queenWins == null || rookWins == null)) {
+            throw new IllegalArgumentException("Pawn tables need the queen and rook tables to promote into");
+        }
+        return new BitbaseGenerator(piece, queenWins, rookWins).solve();
+    }
+
+    static int index(boolean strongToMove, int strongKing, int weakKing, int pieceSquare) {
+        return ((strongToMove ? 0 : 64 * 64 * 64) | strongKing << 12 | weakKing << 6 | pieceSquare);
+    }
+
+    static boolean isWin(long[] wins, int index) {
+        return (wins[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private long[] solve() {
+        for (int index = 0; index < POSITIONS; index++) {
+            state[index] = initial(index);
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int index = 0; index < POSITIONS; index++) {
+                if (state[index] == UNKNOWN && (index < 64 * 64 * 64 ? strongCanWin(index) : weakMustLose(index))) {
+                    state[index] = WIN;
+                    changed = true;
+                }
+            }
+        }
+        long[] wins = new long[POSITIONS / 64];
+        for (int index = 0; index < POSITIONS; index++) {
+            if (state[index] == WIN) {
+                wins[index >>> 6] |= 1L << index;
+            }
+        }
+        return wins;
+    }
+
+    private byte initial(int index) {
+        boolean strongToMove = index < 64 * 64 * 64;
+        int strongKing = index >>> 12 & 63;
+        int weakKing = index >>> 6 & 63;
+        int square = index & 63;
+        if (strongKing == weakKing || strongKing == square || weakKing == square
+                || (Attacks.king(strongKing) & (1L << weakKing)) != 0) {
+            return INVALID;
+        }
+        if (piece == ChessPiece.PieceType.PAWN && (square < 8 || square >= 56)) {
+            return INVALID;
+        }
+        boolean check = (attacks(square, (1L << strongKing) | (1L << weakKing)) & (1L << weakKing)) != 0;
+        if (strongToMove) {
+            return check ? INVALID : UNKNOWN;
+        }
+        boolean canMove = false;
+        for (long targets = Attacks.king(weakKing); targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (weakCanStep(strongKing, to, square)) {
+                if (to == square) {
+                    return UNKNOWN; // Taking the piece is a draw, which weakMustLose sees
+                }
+                canMove = true;
+            }
+        }
+        if (!canMove) {
+            return check ? WIN : DRAW;
+        }
+        return UNKNOWN;
+    }
+
+    private boolean strongCanWin(int index) {
+        int strongKing = index >>> 12 & 63;
+        int weakKing = index >>> 6 & 63;
+        int square = index & 63;
+        long guarded = Attacks.king(weakKing) | (1L << square);
+        for (long targets = Attacks.king(strongKing) & ~guarded; targets != 0; targets &= targets - 1) {
+            if (state[index(false, Long.numberOfTrailingZeros(targets), weakKing, square)] == WIN) {
+                return true;
+            }
+        }
+        long occupied = (1L << strongKing) | (1L << weakKing) | (1L << square);
+        if (piece != ChessPiece.PieceType.PAWN) {
+            for (long targets = attacks(square, occupied) & ~occupied; targets != 0; targets &= targets - 1) {
+                if (state[index(false, strongKing, weakKing, Long.numberOfTrailingZeros(targets))] == WIN) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        int next = square + 8;
+        if ((occupied & (1L << next)) != 0) {
+            return false;
+        }
+        if (next >= 56) {
+            int promoted = index(false, strongKing, weakKing, next);
+            return isWin(queenWins, promoted) || isWin(rookWins, promoted);
+        }
+        if (state[index(false, strongKing, weakKing, next)] == WIN) {
+            return true;
+        }
+        int jump = next + 8;
+        return square < 16 && (occupied & (1L << jump)) == 0 && state[index(false, strongKing, weakKing, jump)] == WIN;
+    }
+
+    private boolean weakMustLose(int index) {
+        int strongKing = index >>> 12 & 63;
+        int weakKing = index >>> 6 & 63;
+        int square = index & 63;
+        for (long targets = Attacks.king(weakKing); targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            if (weakCanStep(strongKing, to, square)
+                    && (to == square || state[index(true, strongKing, to, square)] != WIN)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether the lone king may step onto a square, which may be the piece's if it is undefended
+    private boolean weakCanStep(int strongKing, int to, int square) {
+        if ((Attacks.king(strongKing) & (1L << to)) != 0) {
+            return false;
+        }
+        // The lone king leaves its square, so a slider's attack carries on through it
+        return to == square || (attacks(square, (1L << strongKing) | (1L << square)) & (1L << to)) == 0;
+    }
+
+    private long attacks(int square, long occupied) {
+        return switch (piece) {
+            case QUEEN -> Attacks.queen(square, occupied);
+            case ROOK -> Attacks.rook(square, occupied);
+            case PAWN -> Attacks.pawn(ChessGame.TeamColor.WHITE, square);
+            default -> throw new IllegalArgumentException("No bitbase for a " + piece);
+        };
+    }
+}
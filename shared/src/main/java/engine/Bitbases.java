@@ -0,0 +1,149 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Exact win or draw results for king and queen, king and rook, and king and
+ * pawn against a lone king, so the search can score these endings without
+ * searching them. Each table holds one bit per position, 64 KB in all.
+ * <p>
+ * Generating the tables takes a few seconds, so {@link #load(Path)} keeps them
+ * in a directory and only generates the ones missing from it. Each saved table
+ * ends with a CRC-32 of its bits, and a table that fails the check is generated
+ * again. Castling and en passant can't change the result of these endings and
+ * are ignored.
+ */
+public final class Bitbases {
+    private static final int TABLE_BYTES = BitbaseGenerator.POSITIONS / 8;
+    // The table followed by its CRC-32
+    private static final int FILE_BYTES = TABLE_BYTES + Integer.BYTES;
+
+    /**
+     * The result of a position for the side to move
+     */
+    public enum Result {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    private final long[] queenWins;
+    private final long[] rookWins;
+    private final long[] pawnWins;
+
+    private Bitbases(long[] queenWins, long[] rookWins, long[] pawnWins) {
+        this.queenWins = queenWins;
+        this.rookWins = rookWins;
+        this.pawnWins = pawnWins;
+    }
+
+    /**
+     * Generates every table in memory, without touching the disk
+     *
+     * @return the tables
+     */
+    public static Bitbases generate() {
+        long[] queen = BitbaseGenerator.generate(ChessPiece.PieceType.QUEEN, null, null);
+        long[] rook = BitbaseGenerator.generate(ChessPiece.PieceType.ROOK, null, null);
+        return new Bitbases(queen, rook, BitbaseGenerator.generate(ChessPiece.PieceType.PAWN, queen, rook));
+    }
+
+    /**
+     * Reads the tables from a directory, generating and saving any that are
+     * missing or damaged
+     *
+     * @param directory where the tables are kept; created if needed
+     * @return the tables
+     * @throws IOException if the directory can't be read or written
+     */
+    public static Bitbases load(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        long[] queen = load(directory.resolve("kqk.bin"), ChessPiece.PieceType.QUEEN, null, null);
+        long[] rook = load(directory.resolve("krk.bin"), ChessPiece.PieceType.ROOK, null, null);
+        return new Bitbases(queen, rook, load(directory.resolve("kpk.bin"), ChessPiece.PieceType.PAWN, queen, rook));
+    }
+
+    /**
+     * @param board  the position
+     * @param toMove the side to move
+     * @return the result for the side to move, or null if the position is not
+     * two kings and one queen, rook or pawn
+     */
+    public Result probe(ChessBoard board, ChessGame.TeamColor toMove) {
+        long occupied = board.getOccupied();
+        if (Long.bitCount(occupied) != 3) {
+            return null;
+        }
+        ChessGame.TeamColor strong = Long.bitCount(board.getTeamPieces(ChessGame.TeamColor.WHITE)) == 2
+                ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        int strongKing = board.getKingSquare(strong);
+        int weakKing = board.getKingSquare(strong.opponent());
+        if (strongKing < 0 || weakKing < 0) {
+            return null;
+        }
+        int square = Long.numberOfTrailingZeros(board.getTeamPieces(strong) & ~(1L << strongKing));
+        long[] wins = switch (board.getPiece(square).getPieceType()) {
+            case QUEEN -> queenWins;
+            case ROOK -> rookWins;
+            case PAWN -> pawnWins;
+            default -> null;
+        };
+        if (wins == null) {
+            return null;
+        }
+        // The tables are built with the stronger side as white; flipping the ranks turns black into white
+        int flip = strong == ChessGame.TeamColor.WHITE ? 0 : 56;
+        boolean strongToMove = toMove == strong;
+        int index = BitbaseGenerator.index(strongToMove, strongKing ^ flip, weakKing ^ flip, square ^ flip);
+        if (!BitbaseGenerator.isWin(wins, index)) {
+            return Result.DRAW;
+        }
+        return strongToMove ? Result.WIN : Result.LOSS;
+    }
+
+    // Reads a saved table, or generates and saves it if it is missing, the wrong size or fails its checksum
+    private static long[] load(Path file, ChessPiece.PieceType piece, long[] queenWins, long[] rookWins)
+            throws IOException {
+        if (Files.exists(file) && Files.size(file) == FILE_BYTES) {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (bytes.getInt(TABLE_BYTES) == checksum(bytes)) {
+                long[] wins = new long[BitbaseGenerator.POSITIONS / 64];
+                bytes.limit(TABLE_BYTES).asLongBuffer().get(wins);
+                return wins;
+            }
+        }
+        long[] wins = BitbaseGenerator.generate(piece, queenWins, rookWins);
+        write(file, wins);
+        return wins;
+    }
+
+    // Writes to a temporary file first, so another process starting at the same time never reads half a table
+    private static void write(Path file, long[] wins) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(FILE_BYTES);
+        bytes.asLongBuffer().put(wins);
+        bytes.putInt(TABLE_BYTES, checksum(bytes));
+        Path temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, bytes.array());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // CRC-32 of the table part of a saved file
+    private static int checksum(ByteBuffer bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes.array(), 0, TABLE_BYTES);
+        return (int) crc.getValue();
+    }
+}
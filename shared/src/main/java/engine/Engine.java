@@ -0,0 +1,183 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * A computer player: searches a game's position for the best move to play.
+ * <p>
+ * The search runs on a copy of the game, so the caller's game is never
+ * touched. Results are kept in a transposition table between searches, which
+ * helps when the same engine keeps analysing one game. An engine runs one
+ * search at a time; use a separate engine for each concurrent search.
+ * <p>
+ * With more than one thread the engine uses Lazy SMP: helper threads search
+ * the same root on their own copies of the game, some of them a ply deeper,
+ * and the only thing they share is the lock-free transposition table. What
+ * the helpers store there steers and cuts off the main thread's search, whose
+ * result is the one returned. With a single thread, a search depends only on
+ * the position, the limits and the table's contents, so it is repeatable.
+ * A multi-threaded engine should be closed once it is no longer needed, to
+ * stop its helper threads.
+ * <p>
+ * Every {@link SearchFeature} is on unless the engine is created with a
+ * narrower set, which is how each one's savings are measured.
+ * <p>
+ * Given an {@link OpeningBook}, the engine plays from it while the position is
+ * in the book, choosing among the book's moves by weight, and only searches
+ * once the game has left it. Given {@link Bitbases}, the search scores the
+ * endings they cover from the tables instead of searching them out.
+ */
+public class Engine implements AutoCloseable {
+    private static final int DEFAULT_HASH_ENTRIES = 1 << 20;
+
+    private final TranspositionTable table;
+    private final int threads;
+    private final Set<SearchFeature> features;
+    private final ExecutorService helpers;
+    private final RandomGenerator random = RandomGenerator.getDefault();
+    private OpeningBook book;
+    private Bitbases bitbases;
+
+    /**
+     * Creates a single-threaded engine
+     */
+    public Engine() {
+        this(1, DEFAULT_HASH_ENTRIES);
+    }
+
+    /**
+     * @param hashEntries number of positions the transposition table holds
+     */
+    public Engine(int hashEntries) {
+        this(1, hashEntries);
+    }
+
+    /**
+     * @param threads     number of threads each search uses, including the caller's
+     * @param hashEntries number of positions the transposition table holds
+     */
+    public Engine(int threads, int hashEntries) {
+        this(threads, hashEntries, EnumSet.allOf(SearchFeature.class));
+    }
+
+    /**
+     * @param threads     number of threads each search uses, including the caller's
+     * @param hashEntries number of positions the transposition table holds
+     * @param features    the move ordering and pruning techniques to use
+     */
+    public Engine(int threads, int hashEntries, Set<SearchFeature> features) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Engine needs at least one thread");
+        }
+        if (hashEntries < 1) {
+            throw new IllegalArgumentException("Hash table needs at least one entry");
+        }
+        table = new TranspositionTable(hashEntries);
+        this.threads = threads;
+        this.features = EnumSet.noneOf(SearchFeature.class);
+        this.features.addAll(features);
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "engine-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Finds the best move for the side to move
+     *
+     * @param game   the game to search; it is not modified
+     * @param limits when to stop searching
+     * @return the best move found and its score, with nodes counted across all
+     * threads; a move from the book has a depth and node count of 0
+     * @throws IllegalStateException if the engine is multi-threaded and has been closed
+     */
+    public synchronized SearchResult search(ChessGame game, SearchLimits limits) {
+        if (helpers != null && helpers.isShutdown()) {
+            throw new IllegalStateException("Engine has been closed");
+        }
+        if (book != null) {
+            ChessMove bookMove = book.pick(game, random);
+            if (bookMove != null) {
+                return new SearchResult(bookMove, 0, 0, 0, 0);
+            }
+        }
+        AtomicBoolean abort = new AtomicBoolean();
+        Searcher main = new Searcher(new ChessGame(game), table, limits, features, abort, 0, bitbases);
+        if (helpers == null) {
+            return main.run();
+        }
+
+        // Helpers have no node limit of their own; they run until the main search is done
+        SearchLimits helperLimits = new SearchLimits(limits.maxDepth(), limits.maxTimeMillis(), 0);
+        List<Searcher> searchers = new ArrayList<>();
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < threads; i++) {
+            Searcher helper = new Searcher(new ChessGame(game), table, helperLimits, features, abort, i % 2,
+                    bitbases);
+            searchers.add(helper);
+            running.add(helpers.submit(helper::run));
+        }
+        SearchResult result = main.run();
+        abort.set(true);
+
+        long nodes = result.nodes();
+        try {
+            for (Future<?> helper : running) {
+                helper.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+        for (Searcher helper : searchers) {
+            nodes += helper.nodes();
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.timeMillis());
+    }
+
+    /**
+     * @param book the book to play from before searching, or null to always search
+     */
+    public synchronized void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * @param bitbases endgame tables for the search to use, or null to search every ending
+     */
+    public synchronized void setBitbases(Bitbases bitbases) {
+        this.bitbases = bitbases;
+    }
+
+    /**
+     * Forgets every stored search result, for starting on an unrelated game
+     */
+    public synchronized void clearHash() {
+        table.clear();
+    }
+
+    /**
+     * Stops the helper threads, after any search in progress has finished. A
+     * multi-threaded engine can't search once it is closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
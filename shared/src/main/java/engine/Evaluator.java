@@ -0,0 +1,237 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+
+/**
+ * Scores positions statically, without searching, in centipawns: material
+ * plus piece-square tables, with separate middlegame and endgame tables
+ * blended by how much material is left.
+ * <p>
+ * The score is not recomputed from the board at every leaf. The search tells
+ * the evaluator about each move before playing it, and the evaluator works out
+ * how the move changes the score and keeps the result on a stack indexed by
+ * ply, so taking a move back costs nothing.
+ */
+final class Evaluator {
+    // Indexed by piece type ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private static final int[] MIDDLEGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+    // Non-pawn material counts toward the game phase; 24 is every piece on the board
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    private static final int FULL_PHASE = 24;
+
+    private static final int TYPES = 6;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    // Square bonuses laid out as seen from white's side, row 8 first
+    private static final int[] PAWN_MIDDLEGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            20, 20, 20, 20, 20, 20, 20, 20,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            10, 10, 10, 10, 10, 10, 10, 10,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+
+    private static final int[] KING_MIDDLEGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    // Material plus square bonus for each piece index (white king to black pawn) and
+    // square, from white's point of view, so black's entries are negative
+    private static final int[][] MIDDLEGAME = new int[TYPES * 2][64];
+    private static final int[][] ENDGAME = new int[TYPES * 2][64];
+
+    static {
+        int[][] middlegame = {KING_MIDDLEGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDDLEGAME};
+        int[][] endgame = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+        for (int type = 0; type < TYPES; type++) {
+            for (int square = 0; square < 64; square++) {
+                int whiteEntry = square ^ 56; // Flip to row 8 first
+                MIDDLEGAME[type][square] = MIDDLEGAME_VALUES[type] + middlegame[type][whiteEntry];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + endgame[type][whiteEntry];
+                MIDDLEGAME[TYPES + type][square] = -(MIDDLEGAME_VALUES[type] + middlegame[type][square]);
+                ENDGAME[TYPES + type][square] = -(ENDGAME_VALUES[type] + endgame[type][square]);
+            }
+        }
+    }
+
+    private final int[] middlegameStack = new int[Searcher.MAX_PLY + 1];
+    private final int[] endgameStack = new int[Searcher.MAX_PLY + 1];
+    private final int[] phaseStack = new int[Searcher.MAX_PLY + 1];
+
+    /**
+     * Scores a board from scratch and makes it the position at ply 0
+     */
+    void reset(ChessBoard board) {
+        middlegameStack[0] = 0;
+        endgameStack[0] = 0;
+        phaseStack[0] = 0;
+        for (int index = 0; index < TYPES * 2; index++) {
+            ChessGame.TeamColor color = index < TYPES ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            for (long pieces = board.getPieces(color, PIECE_TYPES[index % TYPES]); pieces != 0; pieces &= pieces - 1) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                middlegameStack[0] += MIDDLEGAME[index][square];
+                endgameStack[0] += ENDGAME[index][square];
+                phaseStack[0] += PHASE_WEIGHTS[index % TYPES];
+            }
+        }
+    }
+
+    /**
+     * Works out the score after a move and stores it for the next ply. Call
+     * this before the move is played, while the board still shows what it
+     * captures.
+     *
+     * @param board the position at {@code ply}
+     * @param move  the legal move about to be played
+     * @param ply   distance of the current position from the root
+     */
+    void push(ChessBoard board, int move, int ply) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece piece = board.getPiece(from);
+        int offset = piece.getTeamColor() == ChessGame.TeamColor.WHITE ? 0 : TYPES;
+        int type = piece.getPieceType().ordinal();
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        int landed = offset + (promotion == null ? type : promotion.ordinal());
+
+        int middlegame = middlegameStack[ply] + MIDDLEGAME[landed][to] - MIDDLEGAME[offset + type][from];
+        int endgame = endgameStack[ply] + ENDGAME[landed][to] - ENDGAME[offset + type][from];
+        int phase = phaseStack[ply] + PHASE_WEIGHTS[landed % TYPES] - PHASE_WEIGHTS[type];
+
+        ChessPiece captured = board.getPiece(to);
+        int capturedSquare = to;
+        if (captured == null && piece.getPieceType() == ChessPiece.PieceType.PAWN && from % 8 != to % 8) {
+            capturedSquare = from / 8 * 8 + to % 8; // En passant takes the pawn beside the start square
+            captured = board.getPiece(capturedSquare);
+        }
+        if (captured != null) {
+            int index = (TYPES - offset) + captured.getPieceType().ordinal();
+            middlegame -= MIDDLEGAME[index][capturedSquare];
+            endgame -= ENDGAME[index][capturedSquare];
+            phase -= PHASE_WEIGHTS[index % TYPES];
+        }
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = (from + to) / 2;
+            int rook = offset + ChessPiece.PieceType.ROOK.ordinal();
+            middlegame += MIDDLEGAME[rook][rookTo] - MIDDLEGAME[rook][rookFrom];
+            endgame += ENDGAME[rook][rookTo] - ENDGAME[rook][rookFrom];
+        }
+
+        middlegameStack[ply + 1] = middlegame;
+        endgameStack[ply + 1] = endgame;
+        phaseStack[ply + 1] = phase;
+    }
+
+    /**
+     * Carries the score over unchanged for a null move played at {@code ply}
+     */
+    void pushNull(int ply) {
+        middlegameStack[ply + 1] = middlegameStack[ply];
+        endgameStack[ply + 1] = endgameStack[ply];
+        phaseStack[ply + 1] = phaseStack[ply];
+    }
+
+    /**
+     * @return the score of the position at {@code ply}, positive when {@code side} is ahead
+     */
+    int evaluate(int ply, ChessGame.TeamColor side) {
+        int phase = Math.min(phaseStack[ply], FULL_PHASE);
+        int score = (middlegameStack[ply] * phase + endgameStack[ply] * (FULL_PHASE - phase)) / FULL_PHASE;
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Scores a board from scratch, without the incremental stack
+     *
+     * @return the score, positive when {@code side} is ahead
+     */
+    static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        Evaluator evaluator = new Evaluator();
+        evaluator.reset(board);
+        return evaluator.evaluate(0, side);
+    }
+}
@@ -0,0 +1,53 @@
+package engine;
+
+import chess.ChessGame;
+import chess.perft.PerftPosition;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Measures what each {@link SearchFeature} saves by counting the nodes a
+ * fixed-depth, single-threaded search of every {@link PerftPosition} visits
+ * with no features, with each feature alone, with all of them, and with all
+ * but one. Node counts don't depend on the machine, so runs can be compared
+ * anywhere.
+ */
+public final class FeatureSuite {
+    private static final int HASH_ENTRIES = 1 << 18;
+
+    private FeatureSuite() {
+    }
+
+    /**
+     * @param features the features to search with
+     * @param depth    depth to search each position to
+     * @return total nodes visited over the whole suite
+     */
+    public static long countNodes(Set<SearchFeature> features, int depth) {
+        long nodes = 0;
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.createGame();
+            nodes += new Engine(1, HASH_ENTRIES, features).search(game, SearchLimits.depth(depth)).nodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * {@code FeatureSuite [depth]} prints the node counts, searching to depth 6 by default
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        long none = countNodes(EnumSet.noneOf(SearchFeature.class), depth);
+        long all = countNodes(EnumSet.allOf(SearchFeature.class), depth);
+        System.out.printf("%-28s %,14d%n", "none", none);
+        for (SearchFeature feature : SearchFeature.values()) {
+            System.out.printf("%-28s %,14d%n", "only " + feature, countNodes(EnumSet.of(feature), depth));
+        }
+        for (SearchFeature feature : SearchFeature.values()) {
+            System.out.printf("%-28s %,14d%n", "all but " + feature,
+                    countNodes(EnumSet.complementOf(EnumSet.of(feature)), depth));
+        }
+        System.out.printf("%-28s %,14d  (%.1fx fewer than none)%n", "all", all, (double) none / all);
+    }
+}
@@ -0,0 +1,179 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book in Polyglot's {@code .bin} format: 16-byte big-endian
+ * entries of position key, move, weight and learning data, sorted by key.
+ * <p>
+ * The file is memory-mapped rather than read, so a lookup is a binary search
+ * over pages the operating system loads on demand, and every process using
+ * the same book shares one copy of it in the page cache. Lookups only read the
+ * mapping, so one book can serve any number of threads.
+ * <p>
+ * Book moves are checked against the legal moves before being returned, so a
+ * book built with different keys or for a different position can't make the
+ * engine play an illegal move. Moves with a weight of zero are never played.
+ */
+public final class OpeningBook {
+    private static final int ENTRY_BYTES = 16;
+    private static final ChessPiece.PieceType[] PROMOTIONS = {null, ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN};
+
+    private final MappedByteBuffer entries;
+    private final int size;
+    private final ToLongFunction<ChessGame> keys;
+
+    /**
+     * Maps a book keyed with the standard Polyglot random numbers
+     *
+     * @param file the book to map
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public OpeningBook(Path file) throws IOException {
+        this(file, new PolyglotKey());
+    }
+
+    /**
+     * @param file the book to map
+     * @param keys hashes positions the same way the book's keys were made,
+     *             usually a {@link PolyglotKey}
+     * @throws IOException if the file can't be opened or mapped
+     */
+    public OpeningBook(Path file, ToLongFunction<ChessGame> keys) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length % ENTRY_BYTES != 0) {
+                throw new IllegalArgumentException(file + " is not a Polyglot book: " + length
+                        + " bytes is not a whole number of entries");
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(file + " is too large to map in one piece");
+            }
+            // The mapping stays valid after the channel is closed
+            entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            size = (int) (length / ENTRY_BYTES);
+        }
+        this.keys = keys;
+    }
+
+    /**
+     * @return the number of entries in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param game the position to look up
+     * @return the book's legal moves for the position, heaviest first, or an
+     * empty list if the position is not in the book
+     */
+    public List<ChessMove> moves(ChessGame game) {
+        List<Candidate> candidates = candidates(game);
+        // Polyglot books store each position's moves heaviest first, but nothing forces a book to
+        candidates.sort((a, b) -> Integer.compare(b.weight(), a.weight()));
+        List<ChessMove> moves = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            moves.add(Move.toChessMove(candidate.move()));
+        }
+        return moves;
+    }
+
+    /**
+     * Picks one of the book's moves at random, each in proportion to its weight
+     *
+     * @param game   the position to look up
+     * @param random source of the choice
+     * @return the chosen move, or null if the position is not in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<Candidate> candidates = candidates(game);
+        int total = 0;
+        for (Candidate candidate : candidates) {
+            total += candidate.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+        int choice = random.nextInt(total);
+        for (Candidate candidate : candidates) {
+            choice -= candidate.weight();
+            if (choice < 0) {
+                return Move.toChessMove(candidate.move());
+            }
+        }
+        throw new IllegalStateException("Book weights did not add up");
+    }
+
+    private record Candidate(int move, int weight) {
+    }
+
+    // The legal moves stored for the position, with their weights
+    private List<Candidate> candidates(ChessGame game) {
+        List<Candidate> candidates = new ArrayList<>();
+        long key = keys.applyAsLong(game);
+        int index = firstEntry(key);
+        if (index >= size || entries.getLong(index * ENTRY_BYTES) != key) {
+            return candidates;
+        }
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(game.getTeamTurn(), legal);
+        for (; index < size && entries.getLong(index * ENTRY_BYTES) == key; index++) {
+            int offset = index * ENTRY_BYTES;
+            int weight = Short.toUnsignedInt(entries.getShort(offset + 10));
+            int legalIndex = legal.indexOf(decode(game, Short.toUnsignedInt(entries.getShort(offset + 8))));
+            if (weight > 0 && legalIndex >= 0) {
+                candidates.add(new Candidate(legal.get(legalIndex), weight));
+            }
+        }
+        return candidates;
+    }
+
+    // Index of the first entry whose key is not below the given one; keys sort as unsigned numbers
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(entries.getLong(middle * ENTRY_BYTES), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Polyglot packs a move as end file and rank in bits 0-5, start file and
+     * rank in bits 6-11 and the promotion piece in bits 12-14. Castling is
+     * written as the king capturing its own rook.
+     */
+    private static int decode(ChessGame game, int bookMove) {
+        int to = (bookMove >>> 3 & 7) * 8 + (bookMove & 7);
+        int from = (bookMove >>> 9 & 7) * 8 + (bookMove >>> 6 & 7);
+        int promotion = bookMove >>> 12 & 7;
+        ChessPiece mover = game.getBoard().getPiece(from);
+        ChessPiece target = game.getBoard().getPiece(to);
+        if (mover != null && mover.getPieceType() == ChessPiece.PieceType.KING && target != null
+                && target.getPieceType() == ChessPiece.PieceType.ROOK && target.getTeamColor() == mover.getTeamColor()) {
+            to = to > from ? from + 2 : from - 2;
+        }
+        return Move.of(from, to, promotion < PROMOTIONS.length ? PROMOTIONS[promotion] : null, 0);
+    }
+}
@@ -0,0 +1,39 @@
+package engine;
+
+/**
+ * The move ordering, pruning and horizon techniques the search can use, each
+ * of which can be switched off to measure what it saves.
+ */
+public enum SearchFeature {
+    /**
+     * Search captures first, most valuable victim first and, among equal
+     * victims, least valuable attacker first
+     */
+    MVV_LVA,
+    /**
+     * Try the quiet moves that caused a cutoff at the same ply in sibling positions early
+     */
+    KILLERS,
+    /**
+     * Order the remaining quiet moves by how often they have caused cutoffs anywhere
+     */
+    HISTORY,
+    /**
+     * Skip searching a position when passing the turn already scores above beta
+     */
+    NULL_MOVE,
+    /**
+     * Search late, quiet moves to a reduced depth, re-searching only those that beat alpha
+     */
+    LATE_MOVE_REDUCTIONS,
+    /**
+     * At the horizon, keep searching captures and promotions until the position
+     * is quiet instead of evaluating in the middle of an exchange
+     */
+    QUIESCENCE,
+    /**
+     * Skip captures that lose material by static exchange evaluation in the
+     * quiescence search, and try them after the killers in the main search
+     */
+    STATIC_EXCHANGE
+}
@@ -0,0 +1,34 @@
+package engine;
+
+/**
+ * When a search should stop. Iterative deepening stops at whichever limit is
+ * reached first; a time or node limit of 0 means no limit of that kind.
+ *
+ * @param maxDepth      deepest iteration to search, from 1 to {@link #MAX_DEPTH}
+ * @param maxTimeMillis wall-clock time allowed, or 0
+ * @param maxNodes      positions allowed to be visited, or 0
+ */
+public record SearchLimits(int maxDepth, long maxTimeMillis, long maxNodes) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+        }
+        if (maxTimeMillis < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Time and node limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(MAX_DEPTH, millis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, 0, nodes);
+    }
+}
@@ -0,0 +1,22 @@
+package engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search.
+ *
+ * @param bestMove   the move to play, or null if the side to move has none
+ * @param score      centipawns from the side to move's point of view, or a mate score
+ * @param depth      deepest iteration that finished
+ * @param nodes      positions visited
+ * @param timeMillis wall-clock time the search took
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long timeMillis) {
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Searcher.MATE - Searcher.MAX_PLY;
+    }
+}
@@ -0,0 +1,454 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One run of iterative deepening negamax alpha-beta over a private copy of a
+ * game. Moves are played and taken back in place on the copy as packed ints,
+ * with one move buffer per ply and one static exchange buffer reused for every
+ * capture. Past setting these up, the only allocations are the game's undo and
+ * position history arrays doubling when a line runs deeper than any before it,
+ * and the result at the end.
+ * <p>
+ * Several searchers can run at once on copies of the same game, sharing one
+ * transposition table and one stop flag, which is how the engine spreads a
+ * search over threads.
+ */
+final class Searcher {
+    static final int MATE = 32000;
+    static final int INFINITY = MATE + 1;
+    static final int MAX_PLY = 128;
+    // Scores a position the bitbases say is won, plus the evaluation so the winning side still makes progress
+    static final int KNOWN_WIN = 20000;
+
+    // How often, in nodes, the clock is read
+    private static final int CHECK_INTERVAL = 1024;
+
+    // Move ordering tiers: the hash move, then captures and promotions, then killers, then captures losing
+    // material by static exchange, then quiet moves by history
+    private static final int HASH_MOVE_SCORE = 2_000_000;
+    private static final int CAPTURE_SCORE = 1_000_000;
+    private static final int FIRST_KILLER_SCORE = 900_000;
+    private static final int SECOND_KILLER_SCORE = 800_000;
+    private static final int LOSING_CAPTURE_SCORE = 750_000;
+    private static final int MAX_HISTORY = 700_000;
+
+    // Null move needs this much depth left, and searches this many plies shallower
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    // Quiet moves after this many are reduced by a ply when this much depth is left
+    private static final int LMR_MIN_MOVES = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+
+    private final ChessGame game;
+    private final ChessBoard board;
+    private final TranspositionTable table;
+    private final SearchLimits limits;
+    private final AtomicBoolean abort;
+    private final int depthOffset;
+    private final Bitbases bitbases;
+    private final Evaluator evaluator = new Evaluator();
+
+    private final boolean mvvLva;
+    private final boolean useKillers;
+    private final boolean useHistory;
+    private final boolean nullMove;
+    private final boolean lateMoveReductions;
+    private final boolean quiescence;
+    private final boolean staticExchange;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] moveScores = new int[MAX_PLY][];
+    private final int[][] killers = new int[MAX_PLY][2];
+    // Cutoff counts for each side's quiet moves, by start and end square
+    private final int[][] history = new int[2][64 * 64];
+    // Scratch space for static exchange evaluation, reused for every capture
+    private final int[] exchangeGains = new int[StaticExchange.MAX_EXCHANGE];
+
+    private long nodes;
+    private long deadline;
+    private boolean stopped;
+
+    /**
+     * @param game        the position to search, which the search plays moves on
+     * @param table       the transposition table to read and fill
+     * @param limits      when to stop
+     * @param features    the ordering and pruning techniques to use
+     * @param abort       set by another thread to stop this search early
+     * @param depthOffset plies to add to each iteration, so helper threads
+     *                    spread out over different depths
+     * @param bitbases    endgame tables to score positions from, or null
+     */
+    Searcher(ChessGame game, TranspositionTable table, SearchLimits limits, Set<SearchFeature> features,
+             AtomicBoolean abort, int depthOffset, Bitbases bitbases) {
+        this.game = game;
+        this.board = game.getBoard();
+        this.table = table;
+        this.limits = limits;
+        this.abort = abort;
+        this.depthOffset = depthOffset;
+        this.bitbases = bitbases;
+        mvvLva = features.contains(SearchFeature.MVV_LVA);
+        useKillers = features.contains(SearchFeature.KILLERS);
+        useHistory = features.contains(SearchFeature.HISTORY);
+        nullMove = features.contains(SearchFeature.NULL_MOVE);
+        lateMoveReductions = features.contains(SearchFeature.LATE_MOVE_REDUCTIONS);
+        quiescence = features.contains(SearchFeature.QUIESCENCE);
+        staticExchange = features.contains(SearchFeature.STATIC_EXCHANGE);
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            moveScores[ply] = new int[256];
+        }
+    }
+
+    SearchResult run() {
+        long start = System.nanoTime();
+        deadline = limits.maxTimeMillis() > 0 ? start + limits.maxTimeMillis() * 1_000_000 : Long.MAX_VALUE;
+
+        evaluator.reset(board);
+        MoveList rootMoves = new MoveList();
+        game.generateLegalMoves(game.getTeamTurn(), rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = inCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, elapsedMillis(start));
+        }
+
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = 1; depth <= limits.maxDepth(); depth++) {
+            int score = searchRoot(rootMoves, Math.min(depth + depthOffset, SearchLimits.MAX_DEPTH));
+            if (stopped) {
+                break; // The root moves are still ordered best first from the moves searched fully
+            }
+            bestScore = score;
+            completedDepth = Math.min(depth + depthOffset, SearchLimits.MAX_DEPTH);
+            if (Math.abs(score) >= MATE - MAX_PLY) {
+                break; // A forced mate won't get any shorter by searching deeper
+            }
+        }
+        return new SearchResult(Move.toChessMove(rootMoves.get(0)), bestScore, completedDepth, nodes,
+                elapsedMillis(start));
+    }
+
+    // Searches every root move, then moves the best one to the front so the next iteration tries it first
+    private int searchRoot(MoveList moves, int depth) {
+        int alpha = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            evaluator.push(board, moves.get(i), 0);
+            game.playMove(moves.get(i));
+            int score = -search(depth - 1, 1, -INFINITY, -alpha, true);
+            game.undoMove();
+            if (stopped) {
+                break;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+            }
+        }
+        int best = moves.get(bestIndex);
+        for (int i = bestIndex; i > 0; i--) {
+            moves.set(i, moves.get(i - 1));
+        }
+        moves.set(0, best);
+        return alpha;
+    }
+
+    private int search(int depth, int ply, int alpha, int beta, boolean allowNull) {
+        if (countNode()) {
+            return 0;
+        }
+        if (game.isRepetition() || game.isFiftyMoveDraw()) {
+            return 0;
+        }
+        ChessGame.TeamColor team = game.getTeamTurn();
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(ply, team);
+        }
+        if (bitbases != null && Long.bitCount(board.getOccupied()) == 3) {
+            Bitbases.Result result = bitbases.probe(board, team);
+            // A lost side in check is searched instead, since it may be mate already
+            if (result == Bitbases.Result.DRAW) {
+                return 0;
+            } else if (result == Bitbases.Result.WIN) {
+                return KNOWN_WIN + evaluator.evaluate(ply, team);
+            } else if (result == Bitbases.Result.LOSS && !inCheck(team)) {
+                return -KNOWN_WIN + evaluator.evaluate(ply, team);
+            }
+        }
+        if (depth <= 0) {
+            return quiescence ? quiesce(ply, alpha, beta) : evaluator.evaluate(ply, team);
+        }
+
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        boolean inCheck = inCheck(team);
+        if (nullMove && allowNull && !inCheck && depth >= NULL_MOVE_MIN_DEPTH && beta < MATE - MAX_PLY
+                && hasPieces(team) && evaluator.evaluate(ply, team) >= beta) {
+            evaluator.pushNull(ply);
+            game.playNullMove();
+            int score = -search(depth - 1 - NULL_MOVE_REDUCTION, ply + 1, -beta, -beta + 1, false);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.generateLegalMoves(team, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] scores = moveScores[ply];
+        scoreMoves(moves, scores, hashMove, ply, team);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, scores, i);
+            boolean quiet = !Move.isCapture(move) && Move.promotion(move) == null;
+            evaluator.push(board, move, ply);
+            game.playMove(move);
+
+            int score;
+            // Killers and the hash move are expected to be good, so they are never reduced
+            if (lateMoveReductions && quiet && scores[i] < SECOND_KILLER_SCORE && i >= LMR_MIN_MOVES && depth >= LMR_MIN_DEPTH && !inCheck
+                    && !inCheck(team.opponent())) {
+                score = -search(depth - 2, ply + 1, -alpha - 1, -alpha, true);
+                if (score > alpha && !stopped) {
+                    score = -search(depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            } else {
+                score = -search(depth - 1, ply + 1, -beta, -alpha, true);
+            }
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (quiet) {
+                            rememberCutoff(move, depth, ply, team);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and promotions, or every move when in check, so
+     * the position is evaluated once nothing is left hanging. The side to move
+     * may stand pat on the static evaluation instead of capturing, unless it is
+     * in check. Captures are irreversible, so repetitions need no test here.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        ChessGame.TeamColor team = game.getTeamTurn();
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(ply, team);
+        }
+        boolean inCheck = inCheck(team);
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = evaluator.evaluate(ply, team);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.generateLegalMoves(team, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int[] scores = moveScores[ply];
+        int count = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            boolean tactical = Move.isCapture(move) || Move.promotion(move) != null;
+            if (inCheck || (tactical && !(staticExchange && StaticExchange.evaluate(board, move, exchangeGains) < 0))) {
+                moves.set(count, move);
+                scores[count++] = tactical ? CAPTURE_SCORE + captureOrder(move) : 0;
+            }
+        }
+        moves.truncate(count);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(moves, scores, i);
+            evaluator.push(board, move, ply);
+            game.playMove(move);
+            boolean stop = countNode();
+            int score = stop ? 0 : -quiesce(ply + 1, -beta, -alpha);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    private void scoreMoves(MoveList moves, int[] scores, int hashMove, int ply, ChessGame.TeamColor team) {
+        int[] cutoffs = history[team.ordinal()];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (hashMove != Move.NONE && Move.sameMove(move, hashMove)) {
+                score = HASH_MOVE_SCORE;
+            } else if (mvvLva && (Move.isCapture(move) || Move.promotion(move) != null)) {
+                score = (staticExchange && StaticExchange.evaluate(board, move, exchangeGains) < 0 ? LOSING_CAPTURE_SCORE
+                        : CAPTURE_SCORE) + captureOrder(move);
+            } else if (useKillers && Move.sameMove(move, killers[ply][0])) {
+                score = FIRST_KILLER_SCORE;
+            } else if (useKillers && Move.sameMove(move, killers[ply][1])) {
+                score = SECOND_KILLER_SCORE;
+            } else if (useHistory) {
+                score = Math.min(cutoffs[Move.from(move) << 6 | Move.to(move)], MAX_HISTORY);
+            } else {
+                score = 0;
+            }
+            scores[i] = score;
+        }
+    }
+
+    // Most valuable victim, then least valuable attacker, with promotions scored by the piece gained
+    private int captureOrder(int move) {
+        ChessPiece victim = board.getPiece(Move.to(move));
+        int gained = victim != null ? Evaluator.PIECE_VALUES[victim.getPieceType().ordinal()]
+                : Move.isCapture(move) ? Evaluator.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()] : 0;
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            gained += Evaluator.PIECE_VALUES[promotion.ordinal()];
+        }
+        int attacker = board.getPiece(Move.from(move)).getPieceType().ordinal();
+        return gained * 16 - Evaluator.PIECE_VALUES[attacker] / 100;
+    }
+
+    // Selection sort one step at a time, since a cutoff often comes before the list is half used
+    private static int nextMove(MoveList moves, int[] scores, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    private void rememberCutoff(int move, int depth, int ply, ChessGame.TeamColor team) {
+        if (useKillers && !Move.sameMove(move, killers[ply][0])) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        if (useHistory) {
+            history[team.ordinal()][Move.from(move) << 6 | Move.to(move)] += depth * depth;
+        }
+    }
+
+    // Null move is unsafe in pawn endings, where being forced to move is often what loses
+    private boolean hasPieces(ChessGame.TeamColor team) {
+        return (board.getTeamPieces(team) & ~board.getPieces(team, ChessPiece.PieceType.PAWN)
+                & ~board.getPieces(team, ChessPiece.PieceType.KING)) != 0;
+    }
+
+    private boolean inCheck(ChessGame.TeamColor team) {
+        int king = board.getKingSquare(team);
+        return king >= 0 && board.isSquareAttacked(king, team.opponent());
+    }
+
+    // Counts a node and checks the limits, returning true once the search has to stop
+    private boolean countNode() {
+        if (++nodes % CHECK_INTERVAL == 0) {
+            checkLimits();
+        }
+        if (limits.maxNodes() > 0 && nodes >= limits.maxNodes()) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    private void checkLimits() {
+        if (abort.get() || System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+    }
+
+    // Mate scores count plies from the root, so they are stored relative to the position instead
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        }
+        return score <= -MATE + MAX_PLY ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        }
+        return score <= -MATE + MAX_PLY ? score + ply : score;
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,105 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+
+/**
+ * Static exchange evaluation: what a capture wins or loses once both sides
+ * have finished recapturing on its square, each always recapturing with its
+ * least valuable attacker and stopping when going on would lose more. Sliders
+ * lined up behind a piece join in once it has captured. Nothing is played on
+ * the board, so this is much cheaper than searching the exchange.
+ */
+public final class StaticExchange {
+    private static final ChessPiece.PieceType[] CHEAPEST_FIRST = {
+            ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING
+    };
+    private static final int KING_VALUE = 20000;
+    // Captures an exchange can run to, which is how long a gain buffer must be
+    static final int MAX_EXCHANGE = 32;
+
+    private StaticExchange() {
+    }
+
+    /**
+     * @param board the position before the move
+     * @param move  a legal move
+     * @return centipawns the moving side gains from the exchange the move
+     * starts; 0 for a quiet move onto a safe square, negative if it loses material
+     */
+    public static int evaluate(ChessBoard board, ChessMove move) {
+        return evaluate(board, Move.fromChessMove(move), new int[MAX_EXCHANGE]);
+    }
+
+    /**
+     * Evaluates a packed move, working in a caller's buffer so searches don't
+     * allocate one per capture
+     *
+     * @param gain scratch space of at least {@link #MAX_EXCHANGE} entries
+     */
+    static int evaluate(ChessBoard board, int move, int[] gain) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece mover = board.getPiece(from);
+        long occupied = board.getOccupied() ^ (1L << from);
+
+        ChessPiece victim = board.getPiece(to);
+        if (victim != null) {
+            gain[0] = value(victim.getPieceType());
+        } else if (mover.getPieceType() == ChessPiece.PieceType.PAWN && from % 8 != to % 8) {
+            gain[0] = value(ChessPiece.PieceType.PAWN); // En passant
+            occupied ^= 1L << (from / 8 * 8 + to % 8);
+        }
+        int onSquare = value(mover.getPieceType());
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            gain[0] += value(promotion) - value(ChessPiece.PieceType.PAWN);
+            onSquare = value(promotion);
+        }
+
+        ChessGame.TeamColor side = mover.getTeamColor().opponent();
+        int depth = 0;
+        while (depth < MAX_EXCHANGE - 1) {
+            long attackers = board.getAttackers(to, side, occupied) & occupied;
+            if (attackers == 0) {
+                break;
+            }
+            ChessPiece.PieceType type = null;
+            long attacker = 0;
+            for (ChessPiece.PieceType candidate : CHEAPEST_FIRST) {
+                long pieces = attackers & board.getPieces(side, candidate);
+                if (pieces != 0) {
+                    type = candidate;
+                    attacker = pieces & -pieces;
+                    break;
+                }
+            }
+            // A king can only recapture if nothing could take it back
+            if (type == ChessPiece.PieceType.KING
+                    && (board.getAttackers(to, side.opponent(), occupied ^ attacker) & (occupied ^ attacker)) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = onSquare - gain[depth - 1];
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break; // Neither side would choose to go on from here
+            }
+            onSquare = value(type);
+            occupied ^= attacker;
+            side = side.opponent();
+        }
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    private static int value(ChessPiece.PieceType type) {
+        return type == ChessPiece.PieceType.KING ? KING_VALUE : Evaluator.PIECE_VALUES[type.ordinal()];
+    }
+}
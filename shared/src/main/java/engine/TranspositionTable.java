@@ -0,0 +1,78 @@
+package engine;
+
+import chess.Move;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers the result of searching each position, so a position reached
+ * again by another move order, or in the next iteration, can reuse it.
+ * <p>
+ * Each entry packs the best move's start, end and promotion bits (0-14), the
+ * bound type (15-16), the depth searched (17-24) and the score (25-40) into
+ * one {@code long}. A new result always replaces whatever was in its slot.
+ * <p>
+ * The table is shared by every search thread without locking. Each slot holds
+ * the key XORed with the entry next to the entry itself; if two threads write
+ * a slot at once and their halves get mixed, the pair no longer XORs back to
+ * either key, so the torn slot simply reads as a miss.
+ */
+final class TranspositionTable {
+    static final int UPPER = 1;
+    static final int LOWER = 2;
+    static final int EXACT = 3;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param size number of entries, rounded up to a power of two
+     */
+    TranspositionTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+        slots = new AtomicLongArray(capacity * 2);
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the entry stored for the position, or 0 if there is none
+     */
+    long probe(long key) {
+        int index = ((int) key & mask) * 2;
+        long entry = slots.getOpaque(index + 1);
+        return (slots.getOpaque(index) ^ entry) == key ? entry : 0;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        int index = ((int) key & mask) * 2;
+        long entry = (move & 0x7FFF) | (long) bound << 15 | (long) depth << 17 | (long) (score & 0xFFFF) << 25;
+        slots.setOpaque(index, key ^ entry);
+        slots.setOpaque(index + 1, entry);
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0);
+        }
+    }
+
+    /**
+     * @return the best move's start, end and promotion, to match against generated moves
+     * with {@link Move#sameMove}, or {@link Move#NONE}
+     */
+    static int move(long entry) {
+        return (int) entry & 0x7FFF;
+    }
+
+    static int bound(long entry) {
+        return (int) (entry >>> 15) & 0x3;
+    }
+
+    static int depth(long entry) {
+        return (int) (entry >>> 17) & 0xFF;
+    }
+
+    static int score(long entry) {
+        return (short) (entry >>> 25);
+    }
+}
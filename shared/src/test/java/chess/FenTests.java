@@ -0,0 +1,105 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Comparator;
+import java.util.List;
+
+public class FenTests {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        Assertions.assertEquals(START, new ChessGame().toFen(), "Wrong FEN for a new game");
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(START), "FEN didn't load the starting position");
+    }
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Round Trip")
+    public void roundTrip(PerftPosition position) {
+        Assertions.assertEquals(position.getFen(), ChessGame.fromFen(position.getFen()).toFen(),
+                "FEN changed after loading and writing it back");
+    }
+
+    @Test
+    @DisplayName("Moves Update State")
+    public void movesUpdateState() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/5p2/8/4P3/R3K2R w KQ - 3 20");
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertEquals("4k3/8/8/8/4Pp2/8/8/R3K2R b KQ e3 0 20", game.toFen(),
+                "Double push next to an enemy pawn should set the en passant square");
+
+        game.makeMove(new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(7, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 8), ChessPosition.of(1, 7), null));
+        Assertions.assertEquals("8/4k3/8/8/4Pp2/8/8/R3K1R1 b Q - 2 21", game.toFen(),
+                "Moving a rook should drop its castling right");
+
+        game.undoMove();
+        game.undoMove();
+        Assertions.assertEquals("4k3/8/8/8/4Pp2/8/8/R3K2R b KQ e3 0 20", game.toFen(), "Undo didn't restore the FEN");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "4k3/8/8/3Pn3/8/8/8/4K3 w - e6 0 1",
+            "4k3/8/4n3/3Pp3/8/8/8/4K3 w - e6 0 1",
+            "4k3/4p3/8/3Pp3/8/8/8/4K3 w - e6 0 1",
+            "4k3/8/8/8/3pP3/4P3/8/4K3 b - e3 0 1"
+    })
+    @DisplayName("Impossible En Passant Square Dropped")
+    public void impossibleEnPassantDropped(String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(-1, game.getEnPassantSquare(), "No pawn can just have pushed past the square in " + fen);
+        Assertions.assertEquals(fen.replaceFirst(" [a-h][36] ", " - "), game.toFen(),
+                "Impossible en passant square was written back");
+    }
+
+    @Test
+    @DisplayName("No En Passant Capture Of A Piece")
+    public void noEnPassantCaptureOfPiece() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3Pn3/8/8/8/4K3 w - e6 0 1");
+        ChessMove capture = new ChessMove(ChessPosition.of(5, 4), ChessPosition.of(6, 5), null);
+        Assertions.assertFalse(game.validMoves(ChessPosition.of(5, 4)).contains(capture),
+                "A knight can't be taken en passant");
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(capture));
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT),
+                game.getBoard().getPiece(ChessPosition.of(5, 5)), "Knight was removed");
+    }
+
+    @Test
+    @DisplayName("Occupied En Passant Square")
+    public void occupiedEnPassantSquare() {
+        ChessGame game = ChessGame.fromFen("4k3/8/4n3/3PN3/8/8/8/4K3 w - e6 0 1");
+        Assertions.assertEquals(List.of(new ChessMove(ChessPosition.of(5, 4), ChessPosition.of(6, 4), null),
+                        new ChessMove(ChessPosition.of(5, 4), ChessPosition.of(6, 5), null)),
+                game.validMoves(ChessPosition.of(5, 4)).stream()
+                        .sorted(Comparator.comparingInt(move -> move.getEndPosition().getColumn())).toList(),
+                "Taking the knight should be listed once");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+    })
+    @DisplayName("Malformed FEN")
+    public void malformed(String fen) {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen),
+                "Malformed FEN was accepted: " + fen);
+    }
+}
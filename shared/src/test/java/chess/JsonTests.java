@@ -0,0 +1,119 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class JsonTests {
+
+    // A board as Gson wrote it when the board was still an 8x8 array of pieces
+    private static final String LEGACY_BOARD = "{\"squares\":["
+            + "[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},null,null,{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"}],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,null,null,null],"
+            + "[null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},null,null,null]]}";
+
+    // Games as Gson wrote them when they kept a movedPieces set and found en passant from lastMove:
+    // 1. e4 a6 2. e5 d5, with e5xd6 en passant open to white
+    private static final String LEGACY_EN_PASSANT = "{\"board\":{\"squares\":["
+            + "[{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"},{\"pieceColor\":\"WHITE\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"WHITE\",\"type\":\"BISHOP\"},{\"pieceColor\":\"WHITE\",\"type\":\"QUEEN\"},{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},{\"pieceColor\":\"WHITE\",\"type\":\"BISHOP\"},{\"pieceColor\":\"WHITE\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"}],"
+            + "[{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},null,{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"}],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},null,null,null],"
+            + "[{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,null,null,null,null,null,null],"
+            + "[null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"}],"
+            + "[{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"},{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"BLACK\",\"type\":\"BISHOP\"},{\"pieceColor\":\"BLACK\",\"type\":\"QUEEN\"},{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},{\"pieceColor\":\"BLACK\",\"type\":\"BISHOP\"},{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"}]]},"
+            + "\"currentTeam\":\"WHITE\",\"lastMove\":{\"startPosition\":{\"row\":7,\"col\":4},\"endPosition\":{\"row\":5,\"col\":4}},\"gameOver\":false,\"movedPieces\":[{\"row\":5,\"col\":4},{\"row\":5,\"col\":5},{\"row\":4,\"col\":5},{\"row\":2,\"col\":5},{\"row\":7,\"col\":1},{\"row\":6,\"col\":1},{\"row\":7,\"col\":4}]}";
+    // 1. e4 e5 2. Ke2 Ke7 3. Ke1 Ke8, with both kings back home but unable to castle
+    private static final String LEGACY_KINGS_MOVED = "{\"board\":{\"squares\":["
+            + "[{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"},{\"pieceColor\":\"WHITE\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"WHITE\",\"type\":\"BISHOP\"},{\"pieceColor\":\"WHITE\",\"type\":\"QUEEN\"},{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},{\"pieceColor\":\"WHITE\",\"type\":\"BISHOP\"},{\"pieceColor\":\"WHITE\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"}],"
+            + "[{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},null,{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"}],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"PAWN\"},null,null,null],"
+            + "[null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,null,null],"
+            + "[null,null,null,null,null,null,null,null],"
+            + "[{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},null,{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"},{\"pieceColor\":\"BLACK\",\"type\":\"PAWN\"}],"
+            + "[{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"},{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"BLACK\",\"type\":\"BISHOP\"},{\"pieceColor\":\"BLACK\",\"type\":\"QUEEN\"},{\"pieceColor\":\"BLACK\",\"type\":\"KING\"},{\"pieceColor\":\"BLACK\",\"type\":\"BISHOP\"},{\"pieceColor\":\"BLACK\",\"type\":\"KNIGHT\"},{\"pieceColor\":\"BLACK\",\"type\":\"ROOK\"}]]},"
+            + "\"currentTeam\":\"WHITE\",\"lastMove\":{\"startPosition\":{\"row\":7,\"col\":5},\"endPosition\":{\"row\":8,\"col\":5}},\"gameOver\":false,\"movedPieces\":[{\"row\":5,\"col\":5},{\"row\":4,\"col\":5},{\"row\":2,\"col\":5},{\"row\":1,\"col\":5},{\"row\":8,\"col\":5},{\"row\":7,\"col\":5}]}";
+
+    private final Gson gson = new Gson();
+
+    @Test
+    @DisplayName("Load Legacy Board")
+    public void loadLegacyBoard() {
+        ChessBoard board = gson.fromJson(LEGACY_BOARD, ChessBoard.class);
+        Assertions.assertEquals(ChessGame.fromFen("4k3/3p4/8/8/8/8/8/4K2R w - -").getBoard(), board,
+                "Board saved as squares did not load");
+    }
+
+    @Test
+    @DisplayName("Board Round Trip")
+    public void boardRoundTrip() {
+        ChessBoard board = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq -").getBoard();
+        Assertions.assertEquals(board, gson.fromJson(gson.toJson(board), ChessBoard.class),
+                "Board changed on a round trip through JSON");
+    }
+
+    @Test
+    @DisplayName("Load Legacy Game With En Passant")
+    public void loadLegacyEnPassant() {
+        ChessGame game = gson.fromJson(LEGACY_EN_PASSANT, ChessGame.class);
+        Assertions.assertTrue(game.toFen().startsWith("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 "),
+                "Legacy game loaded as " + game.toFen());
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(5, 5))
+                        .contains(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null)),
+                "En passant from the saved last move was not offered");
+    }
+
+    @Test
+    @DisplayName("Load Legacy Game With Moved Kings")
+    public void loadLegacyKingsMoved() {
+        ChessGame game = gson.fromJson(LEGACY_KINGS_MOVED, ChessGame.class);
+        Assertions.assertTrue(game.toFen().startsWith("rnbqkbnr/pppp1ppp/8/4p3/4P3/8/PPPP1PPP/RNBQKBNR w - - "),
+                "Legacy game loaded as " + game.toFen());
+    }
+
+    @Test
+    @DisplayName("Game Round Trip")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        String json = gson.toJson(game);
+        Assertions.assertTrue(json.contains("\"lastMove\":{\"startPosition\":{\"row\":2,\"col\":5}"),
+                "Last move should be saved as a ChessMove: " + json);
+        ChessGame loaded = gson.fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game.toFen(), loaded.toFen(), "Game changed on a round trip through JSON");
+        Assertions.assertEquals(game.getLastMove(), loaded.getLastMove(), "Last move lost on a round trip through JSON");
+    }
+
+    @Test
+    @DisplayName("Only Played Positions Saved")
+    public void onlyPlayedPositionsSaved() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove[] knights = {
+                new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null),
+                new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null),
+                new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null),
+                new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null)};
+        for (ChessMove move : knights) {
+            game.makeMove(move);
+        }
+        String json = gson.toJson(game);
+        Assertions.assertEquals(knights.length,
+                gson.fromJson(json, JsonObject.class).getAsJsonArray("positionHistory").size(),
+                "Saved history should hold one key per move played");
+
+        ChessGame loaded = gson.fromJson(json, ChessGame.class);
+        for (ChessMove move : knights) {
+            loaded.makeMove(move);
+        }
+        Assertions.assertTrue(loaded.isThreefoldRepetition(), "History from before saving was lost");
+    }
+}
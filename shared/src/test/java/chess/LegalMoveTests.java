@@ -0,0 +1,45 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LegalMoveTests {
+
+    @Test
+    @DisplayName("En Passant Only For Side To Move")
+    public void enPassantOnlyForSideToMove() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/8/3p4/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        ChessMove ownPawn = new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 5), null);
+        Assertions.assertFalse(game.validMoves(ChessPosition.of(2, 6)).contains(ownPawn),
+                "White can't capture en passant behind its own pawn");
+        Assertions.assertFalse(game.generateLegalMoves(ChessGame.TeamColor.WHITE).contains(ownPawn),
+                "White can't capture en passant behind its own pawn");
+
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(ChessGame.TeamColor.WHITE, moves);
+        Assertions.assertEquals(-1, moves.indexOf(Move.fromChessMove(ownPawn)),
+                "White can't capture en passant behind its own pawn");
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(4, 4))
+                        .contains(new ChessMove(ChessPosition.of(4, 4), ChessPosition.of(3, 5), null)),
+                "Black, to move, should still capture en passant");
+    }
+
+    @Test
+    @DisplayName("Passing The Turn Clears En Passant")
+    public void passingTurnClearsEnPassant() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/8/3p4/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        ChessMove behindOwnPawn = new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 5), null);
+        Assertions.assertFalse(game.validMoves(ChessPosition.of(2, 6)).contains(behindOwnPawn),
+                "White can't capture en passant behind its own pawn");
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(behindOwnPawn));
+        Assertions.assertEquals("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 1", game.toFen(),
+                "En passant square kept after the turn was handed back");
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(-1, game.getEnPassantSquare(), "A square given up can't come back");
+    }
+}
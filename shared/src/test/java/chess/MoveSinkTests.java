@@ -0,0 +1,54 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class MoveSinkTests {
+
+    /**
+     * The moves each piece sends to a sink, less those that leave the king in
+     * check, plus castling and en passant (which only the game generates), are
+     * the position's legal moves, so they add up to its published perft count
+     * at depth 1.
+     */
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Sink Moves Match Perft")
+    public void sinkMovesMatchPerft(PerftPosition position) {
+        ChessGame game = position.createGame();
+        ChessGame.TeamColor team = game.getTeamTurn();
+        ChessBoard board = game.getBoard();
+        MoveList legal = new MoveList();
+        game.generateLegalMoves(team, legal);
+
+        long nodes = 0;
+        for (int i = 0; i < legal.size(); i++) {
+            if ((legal.get(i) & (Move.CASTLING | Move.EN_PASSANT)) != 0) {
+                nodes++;
+            }
+        }
+        long enemies = board.getTeamPieces(team.opponent());
+        for (long pieces = board.getTeamPieces(team); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            MoveList moves = new MoveList();
+            board.getPiece(square).pieceMoves(board, ChessBoard.toPosition(square), moves);
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                Assertions.assertEquals((enemies & (1L << Move.to(move))) != 0, Move.isCapture(move),
+                        "Wrong capture flag on " + Move.toString(move));
+                ChessBoard after = new ChessBoard(board);
+                after.makeMove(move);
+                boolean safe = !after.isSquareAttacked(after.getKingSquare(team), team.opponent());
+                Assertions.assertEquals(safe, legal.indexOf(move) >= 0,
+                        Move.toString(move) + " disagrees with the legal moves");
+                if (safe) {
+                    nodes++;
+                }
+            }
+        }
+        Assertions.assertEquals(position.expectedNodes(1), nodes, "Wrong number of legal moves in " + position);
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class StatusTests {
+
+    @ParameterizedTest
+    @CsvSource({
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1, NORMAL",
+            "4k3/8/8/8/8/8/8/4R1K1 b - - 0 1, CHECK",
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3, CHECKMATE",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1, STALEMATE",
+            "8/8/4k3/8/8/3K4/8/8 w - - 0 1, DRAW",
+            "8/8/4k3/8/8/3K4/8/5B2 b - - 0 1, DRAW",
+            "8/2b5/4k3/8/8/3K4/8/5B2 w - - 0 1, NORMAL",
+            "8/3b4/4k3/8/8/3K4/8/5B2 w - - 0 1, DRAW",
+            "8/8/4k3/8/8/3K4/8/5BN1 w - - 0 1, NORMAL",
+            "8/8/4k3/8/8/3K4/4P3/8 w - - 0 1, NORMAL"
+    })
+    @DisplayName("Status Of Side To Move")
+    public void statusOfSideToMove(String fen, ChessGame.GameStatus expected) {
+        ChessGame game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(expected, game.status(), "Wrong status for " + fen);
+
+        ChessGame.TeamColor team = game.getTeamTurn();
+        Assertions.assertEquals(expected == ChessGame.GameStatus.CHECKMATE, game.isInCheckmate(team),
+                "status() disagrees with isInCheckmate for " + fen);
+        Assertions.assertEquals(expected == ChessGame.GameStatus.STALEMATE, game.isInStalemate(team),
+                "status() disagrees with isInStalemate for " + fen);
+        Assertions.assertEquals(expected, game.status(), "Cached status changed for " + fen);
+    }
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int round = 0; round < 2; round++) {
+            for (String move : shuffle) {
+                Assertions.assertNotEquals(ChessGame.GameStatus.DRAW, game.status(), "Drawn before the third repetition");
+                game.makeMove(TestMoves.move(move));
+            }
+        }
+        Assertions.assertTrue(game.isThreefoldRepetition(), "Start position occurred three times");
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW, game.status(), "Threefold repetition should be a draw");
+
+        game.undoMove();
+        Assertions.assertFalse(game.isThreefoldRepetition(), "Undo should take back the repetition");
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.status(), "Undo should take back the draw");
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 98 80");
+        game.makeMove(TestMoves.move("a1a2"));
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.status(), "Only 99 halfmoves have passed");
+        game.makeMove(TestMoves.move("e8d8"));
+        Assertions.assertTrue(game.isFiftyMoveDraw(), "100 halfmoves without a capture or pawn move");
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW, game.status(), "Fifty-move rule should be a draw");
+
+        game.undoMove();
+        game.undoMove();
+        game.makeMove(TestMoves.move("e2e3"));
+        Assertions.assertEquals(0, game.getHalfmoveClock(), "A pawn move should reset the halfmove clock");
+    }
+}
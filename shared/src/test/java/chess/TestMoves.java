@@ -0,0 +1,22 @@
+package chess;
+
+/**
+ * Builds moves from coordinate notation for the tests outside the passoff suite
+ */
+public final class TestMoves {
+
+    private TestMoves() {
+    }
+
+    /**
+     * @param move a move in coordinate notation, such as "e2e4"
+     */
+    public static ChessMove move(String move) {
+        return move(move, null);
+    }
+
+    public static ChessMove move(String move, ChessPiece.PieceType promotion) {
+        return new ChessMove(ChessPosition.of(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                ChessPosition.of(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), promotion);
+    }
+}
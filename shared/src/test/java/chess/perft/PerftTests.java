@@ -0,0 +1,62 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+
+/**
+ * Checks move generation against the published perft counts. Depths are kept
+ * low enough for the suite to run in a few seconds; run {@link Perft#main} to
+ * go deeper.
+ */
+public class PerftTests {
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Perft Counts")
+    public void perftCounts(PerftPosition position) {
+        int depth = position == PerftPosition.START || position == PerftPosition.POSITION_3 ? 4 : 3;
+        try (Perft perft = new Perft(1, 0)) {
+            Assertions.assertEquals(position.expectedNodes(depth), perft.count(position.createGame(), depth),
+                    "Wrong node count for " + position + " at depth " + depth);
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Perft With Table")
+    public void parallelWithTable() {
+        try (Perft perft = new Perft(4, 1 << 16)) {
+            ChessGame game = PerftPosition.KIWIPETE.createGame();
+            Assertions.assertEquals(PerftPosition.KIWIPETE.expectedNodes(4), perft.count(game, 4),
+                    "Parallel perft with a table gave the wrong count");
+            Assertions.assertEquals(PerftPosition.KIWIPETE.createGame(), game, "Perft modified the game it was given");
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Sums To Total")
+    public void divideSumsToTotal() {
+        try (Perft perft = new Perft(2, 0)) {
+            Map<String, Long> counts = perft.divide(PerftPosition.POSITION_4.createGame(), 3);
+            Assertions.assertEquals(PerftPosition.POSITION_4.expectedNodes(1), counts.size(), "Wrong number of root moves");
+            Assertions.assertEquals(PerftPosition.POSITION_4.expectedNodes(3),
+                    counts.values().stream().mapToLong(Long::longValue).sum(), "Divide counts don't sum to the total");
+        }
+    }
+
+    @Test
+    @DisplayName("Depth Out Of Range")
+    public void depthOutOfRange() {
+        try (Perft perft = new Perft(1, 0)) {
+            ChessGame game = new ChessGame();
+            Assertions.assertEquals(1, perft.count(game, 0), "Depth 0 counts the position itself");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> perft.count(game, -1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> perft.divide(game, 0));
+        }
+    }
+}
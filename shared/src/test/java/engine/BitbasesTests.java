@@ -0,0 +1,98 @@
+package engine;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BitbasesTests {
+    @TempDir
+    static Path directory;
+
+    private static Bitbases bitbases;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        bitbases = Bitbases.load(directory);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "Queen Wins, 4k3/8/8/8/8/8/8/Q3K3 w - - 0 1, WIN",
+            "Queen Wins With Lone King To Move, 4k3/8/8/8/8/8/8/Q3K3 b - - 0 1, LOSS",
+            "Hanging Queen, 8/8/8/8/8/8/1k6/Q3K3 b - - 0 1, DRAW",
+            "Queen Stalemate, 7k/5Q2/6K1/8/8/8/8/8 b - - 0 1, DRAW",
+            "Rook Wins, 4k3/8/8/8/8/8/8/R3K3 w - - 0 1, WIN",
+            "Rook Wins For Black, r3k3/8/8/8/8/8/8/4K3 b - - 0 1, WIN",
+            "Hanging Rook, 8/8/8/8/8/8/8/Rk2K3 b - - 0 1, DRAW",
+            "King In Front Of Pawn, 4k3/8/4K3/4P3/8/8/8/8 w - - 0 1, WIN",
+            "King In Front Of Pawn Lone King To Move, 4k3/8/4K3/4P3/8/8/8/8 b - - 0 1, LOSS",
+            "Black King In Front Of Pawn, 8/8/8/8/4p3/4k3/8/4K3 w - - 0 1, LOSS",
+            "Pawn Stalemate, 4k3/4P3/4K3/8/8/8/8/8 b - - 0 1, DRAW",
+            "Rook Pawn Corner, k7/8/8/8/8/8/P7/K7 w - - 0 1, DRAW",
+            "Pawn Outruns King, 7k/8/8/8/8/8/P7/K7 w - - 0 1, WIN",
+            "King Catches Pawn, 8/8/8/8/8/8/1k5P/7K b - - 0 1, DRAW",
+    })
+    @DisplayName("Probe")
+    public void probe(String name, String fen, Bitbases.Result expected) {
+        ChessGame game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(expected, bitbases.probe(game.getBoard(), game.getTeamTurn()));
+    }
+
+    @Test
+    @DisplayName("Not Covered")
+    public void notCovered() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1");
+        Assertions.assertNull(bitbases.probe(game.getBoard(), game.getTeamTurn()), "No table for a knight");
+        Assertions.assertNull(bitbases.probe(new ChessGame().getBoard(), ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Cached On Disk")
+    public void cachedOnDisk() throws IOException {
+        for (String table : new String[]{"kqk.bin", "krk.bin", "kpk.bin"}) {
+            Assertions.assertEquals(64 * 1024 + 4, Files.size(directory.resolve(table)), table + " was not saved");
+        }
+        ChessGame game = ChessGame.fromFen("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1");
+        Assertions.assertEquals(Bitbases.Result.LOSS,
+                Bitbases.load(directory).probe(game.getBoard(), game.getTeamTurn()), "Reloaded tables differ");
+    }
+
+    @Test
+    @DisplayName("Damaged Table Regenerated")
+    public void damagedTableRegenerated(@TempDir Path damaged) throws IOException {
+        for (String table : new String[]{"kqk.bin", "krk.bin", "kpk.bin"}) {
+            Files.copy(directory.resolve(table), damaged.resolve(table));
+        }
+        byte[] saved = Files.readAllBytes(damaged.resolve("kqk.bin"));
+        byte[] flipped = saved.clone();
+        flipped[1000] ^= 0x10;
+        Files.write(damaged.resolve("kqk.bin"), flipped);
+
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/Q3K3 w - - 0 1");
+        Assertions.assertEquals(Bitbases.Result.WIN,
+                Bitbases.load(damaged).probe(game.getBoard(), game.getTeamTurn()));
+        Assertions.assertArrayEquals(saved, Files.readAllBytes(damaged.resolve("kqk.bin")),
+                "A table that fails its checksum should be generated again");
+    }
+
+    @Test
+    @DisplayName("Search Scores From Tables")
+    public void searchScoresFromTables() {
+        Engine engine = new Engine();
+        engine.setBitbases(bitbases);
+        SearchResult draw = engine.search(ChessGame.fromFen("k7/8/8/8/8/8/P7/K7 w - - 0 1"), SearchLimits.depth(6));
+        Assertions.assertEquals(0, draw.score(), "Rook pawn in the corner is a draw");
+
+        SearchResult win = engine.search(ChessGame.fromFen("7k/8/8/8/8/8/P7/K7 w - - 0 1"), SearchLimits.depth(6));
+        Assertions.assertTrue(win.score() > Searcher.KNOWN_WIN / 2, "Pawn should be known to queen, got " + win.score());
+    }
+}
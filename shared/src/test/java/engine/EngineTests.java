@@ -0,0 +1,122 @@
+package engine;
+
+import chess.ChessGame;
+import chess.TestMoves;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+public class EngineTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertEquals(TestMoves.move("a1a8"), result.bestMove(), "Missed back rank mate");
+        Assertions.assertTrue(result.isMate(), "Mate should get a mate score");
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two")
+    public void mateInTwo() {
+        ChessGame game = ChessGame.fromFen("6k1/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(5));
+        Assertions.assertTrue(result.isMate(), "Mate in two should get a mate score");
+        Assertions.assertEquals(Searcher.MATE - 3, result.score(), "Mate should be found in three plies");
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Queen")
+    public void winsHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(2));
+        Assertions.assertEquals(TestMoves.move("d2d5"), result.bestMove(), "Should take the undefended queen");
+    }
+
+    @Test
+    @DisplayName("Quiescence Sees Recapture")
+    public void quiescenceSeesRecapture() {
+        ChessGame game = ChessGame.fromFen("4k3/8/2p5/3p4/8/8/3Q4/4K3 w - - 0 1");
+        EnumSet<SearchFeature> horizon = EnumSet.complementOf(EnumSet.of(SearchFeature.QUIESCENCE));
+        SearchResult blind = new Engine(1, 1 << 16, horizon).search(game, SearchLimits.depth(1));
+        Assertions.assertEquals(TestMoves.move("d2d5"), blind.bestMove(), "Without quiescence the pawn looks free");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(1));
+        Assertions.assertNotEquals(TestMoves.move("d2d5"), result.bestMove(), "Took a pawn defended by a pawn");
+    }
+
+    @Test
+    @DisplayName("Leaves Game Untouched")
+    public void leavesGameUntouched() {
+        ChessGame game = new ChessGame();
+        String before = game.toFen();
+        new Engine().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(before, game.toFen(), "Search modified the caller's game");
+        Assertions.assertEquals(new ChessGame(), game, "Search modified the caller's game");
+    }
+
+    @Test
+    @DisplayName("Respects Node Limit")
+    public void respectsNodeLimit() {
+        SearchResult result = new Engine().search(new ChessGame(), SearchLimits.nodes(5000));
+        Assertions.assertNotNull(result.bestMove(), "Should still return a move");
+        Assertions.assertTrue(result.nodes() <= 5000, "Searched " + result.nodes() + " nodes");
+    }
+
+    @Test
+    @DisplayName("No Legal Moves")
+    public void noLegalMoves() {
+        ChessGame game = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove(), "Stalemated side has no move");
+        Assertions.assertEquals(0, result.score(), "Stalemate is a draw");
+    }
+
+    @Test
+    @DisplayName("Single Thread Is Deterministic")
+    public void singleThreadIsDeterministic() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        SearchResult first = new Engine(1, 1 << 16).search(game, SearchLimits.depth(4));
+        SearchResult second = new Engine(1, 1 << 16).search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(first.bestMove(), second.bestMove(), "Same search chose different moves");
+        Assertions.assertEquals(first.score(), second.score(), "Same search gave different scores");
+        Assertions.assertEquals(first.nodes(), second.nodes(), "Same search visited a different number of nodes");
+    }
+
+    @Test
+    @DisplayName("Multi Threaded Search")
+    public void multiThreadedSearch() {
+        ChessGame game = ChessGame.fromFen("6k1/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        try (Engine engine = new Engine(4, 1 << 16)) {
+            SearchResult result = engine.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(Searcher.MATE - 3, result.score(), "Threads should agree on the mate in two");
+            Assertions.assertEquals(ChessGame.fromFen("6k1/8/8/8/8/8/R7/1R4K1 w - - 0 1"), game,
+                    "Search modified the caller's game");
+            engine.close();
+            Assertions.assertThrows(IllegalStateException.class,
+                    () -> engine.search(game, SearchLimits.depth(1)), "A closed engine should not search");
+        }
+    }
+
+    @Test
+    @DisplayName("Features Shrink The Tree")
+    public void featuresShrinkTheTree() {
+        // Quiescence grows the tree to search past the horizon, so the baseline keeps it
+        long none = FeatureSuite.countNodes(EnumSet.of(SearchFeature.QUIESCENCE), 4);
+        long all = FeatureSuite.countNodes(EnumSet.allOf(SearchFeature.class), 4);
+        Assertions.assertTrue(all * 2 < none,
+                "All features visited " + all + " nodes against " + none + " with only quiescence");
+    }
+
+    @Test
+    @DisplayName("Every Feature Set Finds Mate")
+    public void everyFeatureSetFindsMate() {
+        ChessGame game = ChessGame.fromFen("6k1/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+        for (SearchFeature feature : SearchFeature.values()) {
+            SearchResult result = new Engine(1, 1 << 16, EnumSet.of(feature)).search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(Searcher.MATE - 3, result.score(), "Missed mate in two with only " + feature);
+        }
+    }
+}
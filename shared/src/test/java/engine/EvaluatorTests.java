@@ -0,0 +1,70 @@
+package engine;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class EvaluatorTests {
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Incremental Matches Full")
+    public void incrementalMatchesFull(PerftPosition position) {
+        ChessGame game = position.createGame();
+        Evaluator evaluator = new Evaluator();
+        evaluator.reset(game.getBoard());
+        checkTree(game, evaluator, 0, 3);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    @DisplayName("Mirrored Position Scores The Same")
+    public void mirroredPositionScoresTheSame(PerftPosition position) {
+        ChessGame game = position.createGame();
+        ChessGame mirrored = ChessGame.fromFen(mirror(game.toFen()));
+        Assertions.assertEquals(Evaluator.evaluate(game.getBoard(), game.getTeamTurn()),
+                Evaluator.evaluate(mirrored.getBoard(), mirrored.getTeamTurn()),
+                "Swapping colors should give the side to move the same score");
+    }
+
+    // Walks every line to the given depth, checking each position's incremental score against a fresh one
+    private static void checkTree(ChessGame game, Evaluator evaluator, int ply, int depth) {
+        Assertions.assertEquals(Evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE),
+                evaluator.evaluate(ply, ChessGame.TeamColor.WHITE), "Incremental score drifted at " + game.toFen());
+        if (ply == depth) {
+            return;
+        }
+        MoveList moves = new MoveList();
+        game.generateLegalMoves(game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            evaluator.push(game.getBoard(), moves.get(i), ply);
+            game.playMove(moves.get(i));
+            checkTree(game, evaluator, ply + 1, depth);
+            game.undoMove();
+        }
+    }
+
+    // Flips the board top to bottom and swaps the colors of every piece and the side to move
+    private static String mirror(String fen) {
+        String[] fields = fen.split(" ");
+        String[] rows = fields[0].split("/");
+        StringBuilder placement = new StringBuilder();
+        for (int i = rows.length - 1; i >= 0; i--) {
+            placement.append(swapCase(rows[i])).append(i > 0 ? "/" : "");
+        }
+        String castling = fields[2].equals("-") ? "-" : swapCase(fields[2]);
+        return placement + (fields[1].equals("w") ? " b " : " w ") + castling + " - 0 1";
+    }
+
+    private static String swapCase(String text) {
+        StringBuilder swapped = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            swapped.append(Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+        }
+        return swapped.toString();
+    }
+}
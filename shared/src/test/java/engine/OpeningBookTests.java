@@ -0,0 +1,190 @@
+package engine;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.TestMoves;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+public class OpeningBookTests {
+    private static final PolyglotKey KEYS = new PolyglotKey(new SplittableRandom(1).longs(PolyglotKey.RANDOM_COUNT).toArray());
+
+    @TempDir
+    Path directory;
+
+    private final List<long[]> entries = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        // Unrelated positions around the ones under test, so lookups have something to search past
+        SplittableRandom random = new SplittableRandom(2);
+        for (int i = 0; i < 200; i++) {
+            entries.add(new long[]{random.nextLong(), random.nextInt(1 << 15), 1});
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Heaviest First")
+    public void movesHeaviestFirst() throws IOException {
+        ChessGame game = new ChessGame();
+        add(game, "e2e4", 5);
+        add(game, "d2d4", 10);
+        add(game, "g1f3", 0);
+        OpeningBook book = write();
+        Assertions.assertEquals(List.of(TestMoves.move("d2d4"), TestMoves.move("e2e4")), book.moves(game),
+                "Book moves should be heaviest first, without weightless moves");
+        Assertions.assertEquals(203, book.size());
+    }
+
+    @Test
+    @DisplayName("Castling Written As King Takes Rook")
+    public void castlingWrittenAsKingTakesRook() throws IOException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        add(game, "e1h1", 2);
+        add(game, "e1a1", 1);
+        Assertions.assertEquals(List.of(TestMoves.move("e1g1"), TestMoves.move("e1c1")), write().moves(game));
+    }
+
+    @Test
+    @DisplayName("Out Of Book")
+    public void outOfBook() throws IOException {
+        add(new ChessGame(), "e2e4", 1);
+        OpeningBook book = write();
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertTrue(book.moves(game).isEmpty());
+        Assertions.assertNull(book.pick(game, new Random(0)));
+    }
+
+    @Test
+    @DisplayName("Illegal Book Move Skipped")
+    public void illegalBookMoveSkipped() throws IOException {
+        ChessGame game = new ChessGame();
+        add(game, "e2e5", 100);
+        add(game, "c2c4", 1);
+        OpeningBook book = write();
+        Assertions.assertEquals(List.of(TestMoves.move("c2c4")), book.moves(game));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(TestMoves.move("c2c4"), book.pick(game, new Random(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Engine Plays From Book")
+    public void enginePlaysFromBook() throws IOException {
+        ChessGame game = new ChessGame();
+        add(game, "b1c3", 1);
+        Engine engine = new Engine();
+        engine.setOpeningBook(write());
+        SearchResult result = engine.search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(TestMoves.move("b1c3"), result.bestMove());
+        Assertions.assertEquals(0, result.nodes(), "A book move needs no search");
+
+        SearchResult searched = engine.search(ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"),
+                SearchLimits.depth(3));
+        Assertions.assertTrue(searched.nodes() > 0, "Out of book, the engine should search");
+    }
+
+    @Test
+    @DisplayName("Transpositions Share A Key")
+    public void transpositionsShareAKey() throws InvalidMoveException {
+        ChessGame first = play("g1f3", "g8f6", "b1c3");
+        ChessGame second = play("b1c3", "g8f6", "g1f3");
+        Assertions.assertEquals(KEYS.applyAsLong(first), KEYS.applyAsLong(second));
+        Assertions.assertNotEquals(KEYS.applyAsLong(new ChessGame()), KEYS.applyAsLong(first));
+    }
+
+    @Test
+    @DisplayName("En Passant Only Keyed When Capturable")
+    public void enPassantOnlyKeyedWhenCapturable() {
+        Assertions.assertEquals(
+                KEYS.applyAsLong(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")),
+                KEYS.applyAsLong(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")));
+        Assertions.assertNotEquals(
+                KEYS.applyAsLong(ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")),
+                KEYS.applyAsLong(ChessGame.fromFen("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")));
+    }
+
+    @Test
+    @DisplayName("Standard Keys Match Polyglot")
+    public void standardKeysMatchPolyglot() throws InvalidMoveException {
+        // The test positions from the Polyglot book format specification
+        PolyglotKey keys = new PolyglotKey();
+        Assertions.assertEquals(0x463b96181691fc9cL, keys.applyAsLong(new ChessGame()));
+        Assertions.assertEquals(0x823c9b50fd114196L, keys.applyAsLong(play("e2e4")));
+        Assertions.assertEquals(0x0756b94461c50fb0L, keys.applyAsLong(play("e2e4", "d7d5")));
+        Assertions.assertEquals(0x662fafb965db29d4L, keys.applyAsLong(play("e2e4", "d7d5", "e4e5")));
+        Assertions.assertEquals(0x22a48b5a8e47ff78L, keys.applyAsLong(play("e2e4", "d7d5", "e4e5", "f7f5")));
+        Assertions.assertEquals(0x652a607ca3f242c1L, keys.applyAsLong(play("e2e4", "d7d5", "e4e5", "f7f5", "e1e2")));
+        Assertions.assertEquals(0x00fdd303c946bdd9L,
+                keys.applyAsLong(play("e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7")));
+        Assertions.assertEquals(0x3c8123ea7b067637L, keys.applyAsLong(play("a2a4", "b7b5", "h2h4", "b5b4", "c2c4")));
+        Assertions.assertEquals(0x5c3f9b829b279560L,
+                keys.applyAsLong(play("a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3")));
+    }
+
+    @Test
+    @DisplayName("Load Random Numbers")
+    public void loadRandomNumbers() throws IOException {
+        long[] randoms = new SplittableRandom(1).longs(PolyglotKey.RANDOM_COUNT).toArray();
+        StringBuilder text = new StringBuilder();
+        for (long random : randoms) {
+            text.append(String.format("0x%016X,%n", random));
+        }
+        Path file = directory.resolve("random64.txt");
+        Files.writeString(file, text);
+        Assertions.assertEquals(KEYS.applyAsLong(new ChessGame()), PolyglotKey.load(file).applyAsLong(new ChessGame()));
+
+        Files.writeString(file, "0x1234");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PolyglotKey.load(file));
+    }
+
+    @Test
+    @DisplayName("Rejects Partial Entries")
+    public void rejectsPartialEntries() throws IOException {
+        Path file = directory.resolve("broken.bin");
+        Files.write(file, new byte[17]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new OpeningBook(file, KEYS));
+    }
+
+    private void add(ChessGame game, String move, int weight) {
+        int encoded = (move.charAt(2) - 'a') | (move.charAt(3) - '1') << 3
+                | (move.charAt(0) - 'a') << 6 | (move.charAt(1) - '1') << 9;
+        entries.add(new long[]{KEYS.applyAsLong(game), encoded, weight});
+    }
+
+    // Writes the entries sorted by key, as the Polyglot tools do
+    private OpeningBook write() throws IOException {
+        entries.sort(Comparator.comparing(entry -> entry[0], Long::compareUnsigned));
+        Path file = directory.resolve("book.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeShort((int) entry[1]);
+                out.writeShort((int) entry[2]);
+                out.writeInt(0);
+            }
+        }
+        return new OpeningBook(file, KEYS);
+    }
+
+    private static ChessGame play(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            game.makeMove(TestMoves.move(move));
+        }
+        return game;
+    }
+}
@@ -0,0 +1,42 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.TestMoves;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class StaticExchangeTests {
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "Undefended Pawn, 4k3/8/8/4p3/8/8/8/4R1K1 w - - 0 1, e1e5, 100",
+            "Defended Pawn, 4k3/8/3p4/4p3/8/8/8/4R1K1 w - - 0 1, e1e5, -400",
+            "Pawn Takes Defended Knight, 4k3/8/3p4/4n3/3P4/8/8/4K3 w - - 0 1, d4e5, 220",
+            "Rook Behind Rook, 4r1k1/8/8/4p3/8/8/4R3/4R1K1 w - - 0 1, e2e5, 100",
+            "King Cannot Recapture Into Defender, 8/8/4k3/3p4/8/8/3Q4/3RK3 w - - 0 1, d2d5, 100",
+            "King Recaptures Undefended Queen, 8/8/4k3/3p4/8/8/3Q4/4K3 w - - 0 1, d2d5, -800",
+            "En Passant, 4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1, e5d6, 100",
+            "Quiet Move To Safe Square, 4k3/8/3p4/8/8/8/8/4KN2 w - - 0 1, f1e3, 0",
+            "Quiet Move Into Pawn Attack, 4k3/8/8/8/3p4/8/8/2B1K3 w - - 0 1, c1e3, -330",
+    })
+    @DisplayName("Exchange Value")
+    public void exchangeValue(String name, String fen, String move, int expected) {
+        ChessGame game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(expected, StaticExchange.evaluate(game.getBoard(), TestMoves.move(move)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "Safe Promotion, 4k3/P7/8/8/8/8/8/4K3 w - - 0 1, 800",
+            "Promotion Recaptured, 1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1, -100",
+    })
+    @DisplayName("Promotion Exchange Value")
+    public void promotionExchangeValue(String name, String fen, int expected) {
+        ChessGame game = ChessGame.fromFen(fen);
+        Assertions.assertEquals(expected,
+                StaticExchange.evaluate(game.getBoard(), TestMoves.move("a7a8", ChessPiece.PieceType.QUEEN)));
+    }
+}